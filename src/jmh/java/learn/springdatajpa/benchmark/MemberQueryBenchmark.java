@@ -0,0 +1,118 @@
+package learn.springdatajpa.benchmark;
+
+import learn.springdatajpa.SpringdatajpaApplication;
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.entity.Team;
+import learn.springdatajpa.repository.MemberRepository;
+import learn.springdatajpa.repository.TeamRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * MemberRepository의 쿼리 작성 방식별 성능 비교
+ *
+ * 인메모리 H2에 rows 만큼 회원을 넣어두고 방식별로 같은 조건의 조회를 실행함.
+ * 처리량(thrpt), 지연 시간 분포(sample: p50/p90/p99...), 호출당 할당량(gc 프로파일러)을 함께 측정함.
+ * 2차 캐시와 쿼리 캐시는 끄고 측정함 (캐시 적중 여부가 아닌 쿼리 방식 자체의 비용을 보기 위함)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MemberQueryBenchmark {
+
+    private static final int TEAM_COUNT = 10;
+
+    @Param({"1000", "10000"})
+    int rows;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    TransactionTemplate readOnly;
+
+    String username;
+    int age;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(SpringdatajpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "--logging.level.org.hibernate.SQL=info");
+
+        memberRepository = context.getBean(MemberRepository.class);
+        TeamRepository teamRepository = context.getBean(TeamRepository.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<Team> teams = IntStream.range(0, TEAM_COUNT)
+                    .mapToObj(i -> teamRepository.save(new Team("team" + i)))
+                    .collect(Collectors.toList());
+            memberRepository.bulkInsert(IntStream.range(0, rows)
+                    .mapToObj(i -> new Member("member" + i, i % 100, teams.get(i % TEAM_COUNT))));
+        });
+
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        username = "member" + rows / 2;
+        age = (rows / 2) % 100;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object derivedQuery() {
+        return readOnly.execute(status -> memberRepository.findByUsernameAndAgeGreaterThan(username, age - 1));
+    }
+
+    @Benchmark
+    public Object namedQuery() {
+        return readOnly.execute(status -> memberRepository.findByUsername(username));
+    }
+
+    @Benchmark
+    public Object jpqlQuery() {
+        return readOnly.execute(status -> memberRepository.findMember(username, age));
+    }
+
+    @Benchmark
+    public Object nativeQuery() {
+        return readOnly.execute(status -> memberRepository.findNativeQueryByUsername(username));
+    }
+
+    /**
+     * 아래 방식들은 조건 없이 전체 회원을 조회하므로 rows에 비례해서 느려짐
+     */
+    @Benchmark
+    public Object dtoProjection() {
+        return readOnly.execute(status -> memberRepository.findMemberDto());
+    }
+
+    @Benchmark
+    public Object entityGraphFetchJoin() {
+        return readOnly.execute(status -> memberRepository.findAll());
+    }
+
+    @Benchmark
+    public Object entityWithLazyTeam() {
+        return readOnly.execute(status -> memberRepository.findMemberCustom());
+    }
+
+}
@@ -0,0 +1,67 @@
+package learn.springdatajpa.benchmark;
+
+import learn.springdatajpa.SpringdatajpaApplication;
+import learn.springdatajpa.repository.MemberRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리포지토리 초기화 방식(spring.data.jpa.repositories.bootstrap-mode)별 애플리케이션 시작 시간 비교
+ *
+ * - DEFAULT: EntityManagerFactory와 리포지토리를 시작 스레드에서 차례로 만듦
+ * - DEFERRED: EntityManagerFactory를 백그라운드에서 만드는 동안 다른 빈을 만들고, 리포지토리는 컨텍스트 초기화 마지막에 만듦
+ * - LAZY: 리포지토리를 처음 사용할 때 만듦
+ *
+ * 클래스 로딩까지 포함한 시작 비용을 재야 하므로 매번 새 JVM에서 한 번만 실행함(SingleShotTime).
+ * 첫 리포지토리 호출까지 포함해서 재야 LAZY가 미뤄둔 비용도 함께 비교할 수 있음.
+ * 시작 후 메타스페이스 사용량과 로딩된 클래스 수도 함께 기록함
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(10)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class StartupBenchmark {
+
+    @Param({"DEFAULT", "DEFERRED", "LAZY"})
+    String bootstrapMode;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        public long metaspaceKb;
+        public long loadedClasses;
+
+        void record() {
+            metaspaceKb = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getName().equals("Metaspace"))
+                    .map(MemoryPoolMXBean::getUsage)
+                    .mapToLong(usage -> usage.getUsed() / 1024)
+                    .sum();
+            loadedClasses = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+        }
+
+    }
+
+    @Benchmark
+    public long startup(Footprint footprint) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringdatajpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:startup",
+                        "--spring.data.jpa.repositories.bootstrap-mode=" + bootstrapMode.toLowerCase(),
+                        "--logging.level.root=warn")) {
+            long count = context.getBean(MemberRepository.class).count();
+            footprint.record();
+            return count;
+        }
+    }
+
+}
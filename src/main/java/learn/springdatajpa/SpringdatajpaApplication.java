@@ -1,5 +1,7 @@
 package learn.springdatajpa;
 
+import learn.springdatajpa.audit.TransactionScopedAuditorAware;
+import learn.springdatajpa.audit.TransactionScopedDateTimeProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
@@ -9,7 +11,7 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import java.util.Optional;
 import java.util.UUID;
 
-@EnableJpaAuditing
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
 @SpringBootApplication
 public class SpringdatajpaApplication {
 
@@ -24,8 +26,15 @@ public class SpringdatajpaApplication {
 		반환된 값은 BaseEntity의 createdBy와 lastModifiedBy의 값으로 주입됨
 
 		예시로 랜덤 UUID를 사용했지만, 실제로는 사용자 세션 등으로부터 신원 데이터를 가져와 사용함
+		사용자 조회는 트랜잭션 당 한 번만 일어나도록 TransactionScopedAuditorAware로 감쌈
 		 */
-		return () -> Optional.of(UUID.randomUUID().toString());
+		return new TransactionScopedAuditorAware(() -> Optional.of(UUID.randomUUID().toString()));
+	}
+
+	@Bean
+	public TransactionScopedDateTimeProvider auditingDateTimeProvider() {
+		// 등록일, 수정일에 사용할 현재 시각도 트랜잭션 당 한 번만 읽음
+		return new TransactionScopedDateTimeProvider();
 	}
 
 }
@@ -0,0 +1,26 @@
+package learn.springdatajpa.audit;
+
+import org.springframework.data.domain.AuditorAware;
+
+import java.util.Optional;
+
+/**
+ * 실제 AuditorAware를 감싸서 트랜잭션 당 한 번만 호출되도록 함
+ * 엔티티 수천 개를 저장해도 사용자 조회(세션 조회, UUID 생성 등)는 한 번만 일어남
+ */
+public class TransactionScopedAuditorAware implements AuditorAware<String> {
+
+    private final Object key = new Object();
+
+    private final AuditorAware<String> delegate;
+
+    public TransactionScopedAuditorAware(AuditorAware<String> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Optional<String> getCurrentAuditor() {
+        return TransactionScopedValues.get(key, delegate::getCurrentAuditor);
+    }
+
+}
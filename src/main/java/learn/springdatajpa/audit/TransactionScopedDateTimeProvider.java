@@ -0,0 +1,29 @@
+package learn.springdatajpa.audit;
+
+import org.springframework.data.auditing.DateTimeProvider;
+
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.Optional;
+
+/**
+ * 현재 시각을 트랜잭션 당 한 번만 읽음
+ * 같은 트랜잭션에서 등록/수정된 엔티티는 모두 같은 등록일/수정일을 가짐
+ */
+public class TransactionScopedDateTimeProvider implements DateTimeProvider {
+
+    private final Object key = new Object();
+
+    @Override
+    public Optional<TemporalAccessor> getNow() {
+        return Optional.of(now());
+    }
+
+    /**
+     * 엔티티 리스너를 거치지 않는 벌크 업데이트에서 수정일을 직접 넣을 때 사용. 같은 트랜잭션의 auditing과 같은 시각을 반환함
+     */
+    public LocalDateTime now() {
+        return TransactionScopedValues.get(key, LocalDateTime::now);
+    }
+
+}
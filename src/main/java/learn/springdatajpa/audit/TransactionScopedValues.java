@@ -0,0 +1,51 @@
+package learn.springdatajpa.audit;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 트랜잭션 동안 한 번만 계산하고 재사용하는 값
+ *
+ * 값은 현재 트랜잭션에 등록한 동기화 객체에 보관함. 스레드에 묶는 리소스(bindResource)와 달리 동기화 객체는 REQUIRES_NEW로
+ * 바깥 트랜잭션이 보류될 때 함께 빠졌다가 재개될 때 돌아오므로, 안쪽 트랜잭션은 바깥 트랜잭션의 값을 쓰지 않고 자기 값을 새로 계산함.
+ * 트랜잭션이 끝나면 동기화 객체와 함께 사라짐. 트랜잭션 밖에서 호출하면 매번 새로 계산함
+ */
+final class TransactionScopedValues {
+
+    private TransactionScopedValues() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T get(Object key, Supplier<T> supplier) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return supplier.get();
+        }
+
+        Values values = currentValues();
+        if (values == null) {
+            values = new Values();
+            TransactionSynchronizationManager.registerSynchronization(values);
+        }
+        return (T) values.values.computeIfAbsent(key, k -> supplier.get());
+    }
+
+    private static Values currentValues() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Values) {
+                return (Values) synchronization;
+            }
+        }
+        return null;
+    }
+
+    private static final class Values implements TransactionSynchronization {
+
+        final Map<Object, Object> values = new HashMap<>();
+
+    }
+
+}
@@ -0,0 +1,82 @@
+package learn.springdatajpa.cache;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.persistence.EntityManagerFactory;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 2차 캐시/쿼리 캐시 리전별 통계
+ *
+ * 적중/미스/저장 횟수는 하이버네이트 통계(hibernate.generate_statistics)에서 가져오고,
+ * 하이버네이트는 캐시 구현체가 항목을 제거한 것을 알 수 없으므로 제거 횟수는 JCache 통계 MXBean에서 가져옴.
+ * 리전 크기를 정할 때 적중률과 제거 횟수를 함께 보면 됨
+ */
+@Component
+public class CacheStatistics {
+
+    private final Statistics statistics;
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    public CacheStatistics(EntityManagerFactory emf) {
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public List<RegionStatistics> regions() {
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(this::region)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+    }
+
+    public Optional<RegionStatistics> region(String regionName) {
+        CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+        if (region == null) {
+            region = statistics.getQueryRegionStatistics(regionName);
+        }
+        if (region == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new RegionStatistics(
+                regionName,
+                region.getHitCount(),
+                region.getMissCount(),
+                region.getPutCount(),
+                evictionCount(regionName),
+                region.getElementCountInMemory()
+        ));
+    }
+
+    /**
+     * Caffeine JCache가 등록하는 MXBean 이름은 "javax.cache:type=CacheStatistics,CacheManager=...,Cache=리전이름"
+     * (ObjectName에 쓸 수 없는 문자는 '.'로 치환되어 있음)
+     */
+    private long evictionCount(String regionName) {
+        try {
+            String cacheName = regionName.replaceAll("[,:=\\n]", ".");
+            ObjectName pattern = new ObjectName("javax.cache:type=CacheStatistics,Cache=" + cacheName + ",*");
+            Set<ObjectName> names = mBeanServer.queryNames(pattern, null);
+            if (names.isEmpty()) {
+                return -1;
+            }
+            return (Long) mBeanServer.getAttribute(names.iterator().next(), "CacheEvictions");
+        } catch (JMException e) {
+            return -1;
+        }
+    }
+
+}
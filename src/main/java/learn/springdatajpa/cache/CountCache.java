@@ -0,0 +1,70 @@
+package learn.springdatajpa.cache;
+
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.event.EntityChangeEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 페이징 count 쿼리 결과 캐시
+ *
+ * 조회 조건(predicate)별로 전체 개수를 TTL 동안 보관함. 데이터가 많을수록 count 쿼리도 본 쿼리만큼 비싸지는데,
+ * 화면에 보여주는 "총 N건"은 정확하지 않아도 되는 경우가 많으므로 근사값을 빠르게 반환하는 쪽을 택함.
+ * 회원이 등록/수정/삭제되거나 벌크 연산이 실행되면 회원 관련 count는 모두 버림.
+ * 변경한 트랜잭션이 커밋된 뒤에 버림. 커밋 전에 버리면 그 사이에 다른 트랜잭션이 변경 전 count를 다시 캐시할 수 있고,
+ * 롤백되면 버릴 필요가 없기 때문. (트랜잭션 밖에서 발생한 이벤트는 바로 처리함)
+ */
+@Component
+public class CountCache {
+
+    private final long ttlNanos;
+
+    private final ConcurrentMap<String, CachedCount> counts = new ConcurrentHashMap<>();
+
+    public CountCache(@Value("${springdatajpa.count-cache.ttl:30s}") Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public long get(String predicate, LongSupplier countQuery) {
+        long now = System.nanoTime();
+        CachedCount cached = counts.get(predicate);
+        if (cached != null && now - cached.loadedAt < ttlNanos) {
+            return cached.count;
+        }
+
+        long count = countQuery.getAsLong();
+        counts.put(predicate, new CachedCount(count, now));
+        return count;
+    }
+
+    public void invalidateAll() {
+        counts.clear();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.isFor(Member.class)) {
+            invalidateAll();
+        }
+    }
+
+    private static final class CachedCount {
+
+        private final long count;
+        private final long loadedAt;
+
+        private CachedCount(long count, long loadedAt) {
+            this.count = count;
+            this.loadedAt = loadedAt;
+        }
+
+    }
+
+}
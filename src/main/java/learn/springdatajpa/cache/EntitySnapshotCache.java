@@ -0,0 +1,114 @@
+package learn.springdatajpa.cache;
+
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.entity.Team;
+import learn.springdatajpa.event.EntityChangeEvent;
+import learn.springdatajpa.event.EntityChangeType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * 팀과 회원을 식별자로 조회할 때 쓰는 애플리케이션 전역 스냅샷 캐시
+ *
+ * findById()는 트랜잭션(영속성 컨텍스트)마다 엔티티를 새로 만들기 때문에, 자주 조회되는 팀도 요청마다 다시 hydrate 됨.
+ * 여기서는 엔티티 대신 불변 스냅샷(TeamSnapshot, MemberSnapshot)을 모든 스레드가 공유하므로 캐시 적중 시 DB 접근도, 엔티티 생성도 없음.
+ * 스냅샷은 수정할 수 없으므로 수정이 필요하면 리포지토리로 엔티티를 조회해야 함.
+ *
+ * 엔티티가 수정/삭제되거나 벌크 연산이 실행되면 EntityChangeEvent를 받아서 무효화함.
+ * 커밋 전에 무효화하면 다른 스레드가 커밋 전의 값을 다시 읽어 캐시할 수 있으므로 커밋된 뒤에 무효화함
+ * (트랜잭션 밖에서 발행된 이벤트는 바로 처리)
+ *
+ * 캐시에 없는 값은 커넥션을 하나만 쓰도록 호출한 쪽의 트랜잭션에서 읽고, 트랜잭션 밖이면 primary에서 읽는 짧은 트랜잭션을 시작함.
+ * 캐시에는 트랜잭션 밖에서 호출됐을 때 새로 시작한 트랜잭션에서 읽은 값만 넣고, 호출한 쪽의 트랜잭션에서 읽은 값은 그대로 반환만 함.
+ * 호출한 트랜잭션은 커밋되지 않은 자기 변경을 보거나, replica에서 읽거나, REPEATABLE READ/MVCC에서 트랜잭션 시작 시점의 스냅샷을 읽을 수 있음.
+ * 마지막 경우는 다른 트랜잭션이 이미 커밋하고 무효화까지 끝낸 값보다 오래된 값이므로, 캐시에 넣으면 만료 시간이 없어 계속 남게 됨
+ */
+@Component
+public class EntitySnapshotCache {
+
+    private final EntityManager em;
+    private final TransactionTemplate loadTransaction;
+
+    private final SnapshotMap<TeamSnapshot> teams;
+    private final SnapshotMap<MemberSnapshot> members;
+
+    public EntitySnapshotCache(EntityManager em, PlatformTransactionManager transactionManager) {
+        this.em = em;
+        // 트랜잭션 밖에서 호출됐을 때만 사용. readOnly로 하면 읽기/쓰기 분리 데이터소스에서 replica로 가므로 쓰기 트랜잭션으로 읽음
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.teams = new SnapshotMap<>(this::loadTeam, EntitySnapshotCache::isCacheable);
+        this.members = new SnapshotMap<>(this::loadMember, EntitySnapshotCache::isCacheable);
+    }
+
+    public Optional<TeamSnapshot> findTeam(Long id) {
+        return teams.get(id);
+    }
+
+    public Optional<MemberSnapshot> findMember(Long id) {
+        return members.get(id);
+    }
+
+    public int size() {
+        return teams.size() + members.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.getChangeType() == EntityChangeType.INSERT) {
+            return;
+        }
+        if (event.isFor(Team.class)) {
+            invalidate(teams, event);
+        } else if (event.isFor(Member.class)) {
+            invalidate(members, event);
+        }
+    }
+
+    private void invalidate(SnapshotMap<?> snapshots, EntityChangeEvent event) {
+        if (event.getId() == null) {
+            snapshots.invalidateAll(); // 벌크 연산
+        } else {
+            snapshots.invalidate(event.getId());
+        }
+    }
+
+    /**
+     * load()가 새로 시작한 트랜잭션은 끝난 뒤이므로, 트랜잭션이 남아 있으면 호출한 쪽의 트랜잭션에서 읽은 값임
+     */
+    private static boolean isCacheable() {
+        return !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    private <T> T load(Supplier<T> query) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return query.get();
+        }
+        return loadTransaction.execute(status -> query.get());
+    }
+
+    private Optional<TeamSnapshot> loadTeam(Long id) {
+        return load(() -> em.createQuery(
+                        "select new learn.springdatajpa.cache.TeamSnapshot(t.id, t.name, t.version)" +
+                                " from Team t where t.id = :id", TeamSnapshot.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst());
+    }
+
+    private Optional<MemberSnapshot> loadMember(Long id) {
+        return load(() -> em.createQuery(
+                        "select new learn.springdatajpa.cache.MemberSnapshot(m.id, m.username, m.age, t.id, m.version)" +
+                                " from Member m left join m.team t where m.id = :id", MemberSnapshot.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst());
+    }
+
+}
@@ -0,0 +1,34 @@
+package learn.springdatajpa.cache;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 조회 전용 회원 스냅샷. 영속성 컨텍스트와 관계없는 불변 객체이므로 여러 스레드가 공유해도 됨.
+ * 팀은 지연 로딩 대상이 되지 않도록 식별자만 가짐
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class MemberSnapshot {
+
+    private final Long id;
+
+    private final String username;
+
+    private final int age;
+
+    private final Long teamId;
+
+    private final Long version;
+
+    public MemberSnapshot(Long id, String username, int age, Long teamId, Long version) {
+        this.id = id;
+        this.username = username;
+        this.age = age;
+        this.teamId = teamId;
+        this.version = version;
+    }
+
+}
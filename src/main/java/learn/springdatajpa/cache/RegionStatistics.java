@@ -0,0 +1,32 @@
+package learn.springdatajpa.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class RegionStatistics {
+
+    private final String region;
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long putCount;
+
+    /**
+     * 크기 제한/만료로 제거된 항목 수. JCache 통계(monitoring.statistics)가 꺼져 있으면 -1
+     */
+    private final long evictionCount;
+
+    private final long elementCount;
+
+    public double getHitRatio() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+}
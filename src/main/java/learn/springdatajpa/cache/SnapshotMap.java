@@ -0,0 +1,78 @@
+package learn.springdatajpa.cache;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * 식별자 -> 스냅샷 맵. 조회는 락 없이 ConcurrentHashMap에서 읽고, 없을 때만 DB에서 읽어서 채움
+ *
+ * DB에서 읽는 동안 같은 식별자가 무효화되면 읽어온 값은 이미 오래된 값일 수 있음.
+ * 이를 막기 위해 식별자를 STRIPES 개의 구간으로 나눠 구간마다 무효화 횟수(세대)를 세고,
+ * 맵에 넣은 뒤에 세대가 바뀌었으면 방금 넣은 값을 다시 지움. 무효화는 세대를 먼저 올린 뒤 맵에서 지우므로
+ * 두 작업이 어떤 순서로 섞여도 오래된 값이 맵에 남지 않음
+ *
+ * cacheable이 false를 반환하면 읽어온 값을 맵에 넣지 않고 반환만 함
+ */
+class SnapshotMap<S> {
+
+    private static final int STRIPES = 64;
+
+    private final ConcurrentMap<Long, S> snapshots = new ConcurrentHashMap<>();
+
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    private final Function<Long, Optional<S>> loader;
+
+    private final BooleanSupplier cacheable;
+
+    SnapshotMap(Function<Long, Optional<S>> loader, BooleanSupplier cacheable) {
+        this.loader = loader;
+        this.cacheable = cacheable;
+    }
+
+    Optional<S> get(Long id) {
+        S cached = snapshots.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        int stripe = stripe(id);
+        long generation = generations.get(stripe);
+        Optional<S> loaded = loader.apply(id);
+        if (!cacheable.getAsBoolean()) {
+            return loaded;
+        }
+        loaded.ifPresent(snapshot -> {
+            snapshots.put(id, snapshot);
+            if (generations.get(stripe) != generation) {
+                snapshots.remove(id, snapshot);
+            }
+        });
+        return loaded;
+    }
+
+    void invalidate(Long id) {
+        generations.incrementAndGet(stripe(id));
+        snapshots.remove(id);
+    }
+
+    void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        snapshots.clear();
+    }
+
+    int size() {
+        return snapshots.size();
+    }
+
+    private int stripe(Long id) {
+        return Long.hashCode(id) & (STRIPES - 1);
+    }
+
+}
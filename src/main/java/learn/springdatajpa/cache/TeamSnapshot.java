@@ -0,0 +1,27 @@
+package learn.springdatajpa.cache;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 조회 전용 팀 스냅샷. 영속성 컨텍스트와 관계없는 불변 객체이므로 여러 스레드가 공유해도 됨
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class TeamSnapshot {
+
+    private final Long id;
+
+    private final String name;
+
+    private final Long version;
+
+    public TeamSnapshot(Long id, String name, Long version) {
+        this.id = id;
+        this.name = name;
+        this.version = version;
+    }
+
+}
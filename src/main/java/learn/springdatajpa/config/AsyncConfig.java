@@ -0,0 +1,51 @@
+package learn.springdatajpa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@EnableAsync
+@Configuration
+public class AsyncConfig {
+
+    public static final String REPOSITORY_EXECUTOR = "repositoryExecutor";
+
+    /**
+     * @Async 리포지토리 메서드를 실행하는 스레드 풀
+     *
+     * 스레드 하나가 쿼리 하나를 실행하는 동안 커넥션 하나를 사용하므로, 스레드 수는 커넥션 풀 크기보다 작게 잡음.
+     * 대기열이 가득 차면 호출한 스레드가 직접 실행하게 해서(CallerRunsPolicy) 요청이 무한정 쌓이지 않게 함 (backpressure)
+     */
+    @Bean(name = REPOSITORY_EXECUTOR)
+    public ThreadPoolTaskExecutor repositoryExecutor(
+            @Value("${springdatajpa.repository-executor.pool-size:8}") int poolSize,
+            @Value("${springdatajpa.repository-executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("repository-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * 스프링 부트의 기본 실행기(applicationTaskExecutor)를 부트 설정(spring.task.execution) 그대로 다시 등록함
+     *
+     * 부트는 Executor 빈이 하나라도 있으면 기본 실행기를 만들지 않으므로 repositoryExecutor 때문에 사라짐.
+     * deferred 부트스트랩(bootstrap-mode)은 AsyncTaskExecutor 빈이 하나뿐이면 그 빈을, 여럿이면 이 이름의 빈을 사용하므로
+     * 이 빈이 없으면 EntityManagerFactory를 repositoryExecutor 스레드에서 만들고, 실행기 빈을 하나 더 추가하는 순간 말없이 동기 방식으로 바뀜
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+}
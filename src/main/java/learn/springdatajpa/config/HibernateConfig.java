@@ -0,0 +1,34 @@
+package learn.springdatajpa.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Configuration
+public class HibernateConfig {
+
+    /**
+     * 스프링 빈으로 등록된 StatementInspector들을 하이버네이트 설정에 직접 넘겨줌
+     * (설정 파일에 클래스 이름으로 지정하면 하이버네이트가 직접 생성하기 때문에 빈을 주입받을 수 없음)
+     * 하이버네이트는 StatementInspector를 하나만 받으므로, @Order 순서대로 SQL을 차례로 넘겨주는 하나로 묶음
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(ObjectProvider<StatementInspector> inspectors) {
+        return properties -> {
+            List<StatementInspector> chain = inspectors.orderedStream().collect(Collectors.toList());
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                for (StatementInspector inspector : chain) {
+                    sql = inspector.inspect(sql);
+                }
+                return sql;
+            });
+        };
+    }
+
+}
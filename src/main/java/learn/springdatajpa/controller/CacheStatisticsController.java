@@ -0,0 +1,22 @@
+package learn.springdatajpa.controller;
+
+import learn.springdatajpa.cache.CacheStatistics;
+import learn.springdatajpa.cache.RegionStatistics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class CacheStatisticsController {
+
+    private final CacheStatistics cacheStatistics;
+
+    @GetMapping("/cache/statistics")
+    public List<RegionStatistics> statistics() {
+        return cacheStatistics.regions();
+    }
+
+}
@@ -0,0 +1,58 @@
+package learn.springdatajpa.controller;
+
+import learn.springdatajpa.event.ChangeBatch;
+import learn.springdatajpa.event.ChangeFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequiredArgsConstructor
+public class ChangeFeedController {
+
+    private static final long MAX_WAIT_MILLIS = 30_000;
+
+    private final ChangeFeed changeFeed;
+
+    /**
+     * offset부터 변경 레코드를 가져감. 다음 요청에는 응답의 nextOffset을 넘김
+     * waitMillis 동안 새 변경을 기다리므로(long polling) 짧은 주기로 반복해서 호출하지 않아도 됨
+     *
+     * 기다리는 동안 요청 처리 스레드를 붙잡지 않도록 DeferredResult로 반환하고, 새 변경이 커밋되면 커밋한 스레드에서 응답을 채움.
+     * waitMillis가 지나도록 변경이 없으면 빈 결과를 반환함
+     */
+    @GetMapping("/changes")
+    public DeferredResult<ChangeBatch> changes(@RequestParam(defaultValue = "0") long offset,
+                                               @RequestParam(defaultValue = "100") int limit,
+                                               @RequestParam(defaultValue = "0") long waitMillis) {
+        long wait = Math.min(waitMillis, MAX_WAIT_MILLIS);
+        if (wait <= 0) {
+            DeferredResult<ChangeBatch> result = new DeferredResult<>();
+            result.setResult(changeFeed.poll(offset, limit));
+            return result;
+        }
+
+        DeferredResult<ChangeBatch> result = new DeferredResult<>(wait, () -> changeFeed.poll(offset, limit));
+        CompletableFuture<ChangeBatch> batch = changeFeed.pollAsync(offset, limit);
+        batch.thenAccept(result::setResult);
+        result.onCompletion(() -> batch.cancel(false));
+        return result;
+    }
+
+    /**
+     * 음수 offset이나 1보다 작은 limit은 클라이언트 오류이므로 500이 아닌 400으로 응답함
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String invalidPoll(IllegalArgumentException e) {
+        return e.getMessage();
+    }
+
+}
@@ -0,0 +1,21 @@
+package learn.springdatajpa.controller;
+
+import learn.springdatajpa.retry.OptimisticRetryMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class RetryStatisticsController {
+
+    private final OptimisticRetryMetrics optimisticRetryMetrics;
+
+    @GetMapping("/retry/statistics")
+    public Map<String, OptimisticRetryMetrics.Snapshot> statistics() {
+        return optimisticRetryMetrics.snapshot();
+    }
+
+}
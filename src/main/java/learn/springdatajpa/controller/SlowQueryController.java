@@ -0,0 +1,31 @@
+package learn.springdatajpa.controller;
+
+import learn.springdatajpa.monitoring.SlowQuery;
+import learn.springdatajpa.monitoring.SlowQueryLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collections;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class SlowQueryController {
+
+    /**
+     * 느린 쿼리 기록을 켰을 때(springdatajpa.slow-query.enabled=true)만 있음
+     */
+    private final ObjectProvider<SlowQueryLog> slowQueryLog;
+
+    /**
+     * 인증 없이 열려 있으므로 파라미터 값은 기본적으로 가려서 반환함 (springdatajpa.slow-query.log-parameters)
+     */
+    @GetMapping("/slow-queries")
+    public List<SlowQuery> slowQueries() {
+        SlowQueryLog log = slowQueryLog.getIfAvailable();
+        return log == null ? Collections.emptyList() : log.recent();
+    }
+
+}
@@ -0,0 +1,93 @@
+package learn.springdatajpa.datasource;
+
+import lombok.Getter;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * replica 하나와 그 상태 (커넥션 획득 지연 시간, 복제 지연 시간)
+ */
+class Replica {
+
+    private static final double LATENCY_WEIGHT = 0.2; // 최근 측정값의 가중치 (지수 이동 평균)
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private final DataSource dataSource;
+
+    private volatile double latencyNanos;
+
+    /**
+     * 마지막 probeLatencyIfUnused() 이후에 선택된 적이 있는지
+     */
+    private volatile boolean used;
+
+    private volatile boolean lagging;
+
+    Replica(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        return measured(start, dataSource.getConnection());
+    }
+
+    Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        return measured(start, dataSource.getConnection(username, password));
+    }
+
+    private Connection measured(long start, Connection connection) {
+        used = true;
+        latencyNanos = latencyNanos == 0
+                ? System.nanoTime() - start
+                : latencyNanos * (1 - LATENCY_WEIGHT) + (System.nanoTime() - start) * LATENCY_WEIGHT;
+        return connection;
+    }
+
+    double getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * 지연 시간은 선택될 때만 측정되므로, 한 번 느렸던 replica는 다시 빨라져도 선택되지 않아 계속 느린 값으로 남음.
+     * 그래서 그 사이에 선택되지 않은 replica는 커넥션을 한 번 얻었다가 반납해서 지연 시간을 다시 측정함
+     */
+    void probeLatencyIfUnused() {
+        if (!used) {
+            try (Connection connection = getConnection()) {
+                // 커넥션 획득 시간만 측정
+            } catch (SQLException e) {
+                // 사용 가능 여부는 복제 지연 조회가 판단함
+            }
+        }
+        used = false;
+    }
+
+    /**
+     * 복제 지연을 조회해서 상태를 갱신함. 조회에 실패하면 지연된 것으로 간주함
+     * 커넥션을 얻는 경로에서는 호출하지 않고, ReplicationRoutingDataSource가 주기적으로 호출함
+     */
+    void refreshLag(ReplicaLagProbe probe, Duration maxLag) {
+        try {
+            lagging = probe.lag(dataSource).compareTo(maxLag) > 0;
+        } catch (SQLException | RuntimeException e) {
+            lagging = true;
+        }
+    }
+
+    /**
+     * 마지막으로 확인한 복제 지연 상태만 보고 판단함
+     */
+    boolean isAvailable() {
+        return !lagging;
+    }
+
+}
@@ -0,0 +1,21 @@
+package learn.springdatajpa.datasource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * replica의 복제 지연 시간 조회
+ * DB마다 방법이 다르므로 (MySQL: SHOW REPLICA STATUS, PostgreSQL: pg_last_xact_replay_timestamp() 등) 빈으로 등록해서 교체함
+ */
+@FunctionalInterface
+public interface ReplicaLagProbe {
+
+    /**
+     * 복제를 사용하지 않는 로컬 H2 등에서 사용. 항상 지연 없음
+     */
+    ReplicaLagProbe NONE = replica -> Duration.ZERO;
+
+    Duration lag(DataSource replica) throws SQLException;
+
+}
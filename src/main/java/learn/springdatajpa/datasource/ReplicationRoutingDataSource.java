@@ -0,0 +1,120 @@
+package learn.springdatajpa.datasource;
+
+import learn.springdatajpa.datasource.RoutingDataSourceProperties.LoadBalancing;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 읽기 전용 트랜잭션(@Transactional(readOnly = true))은 replica로, 나머지는 primary로 커넥션을 요청하는 데이터소스
+ *
+ * 트랜잭션 매니저는 트랜잭션을 시작하면서 readOnly 여부를 등록하기 전에 커넥션을 먼저 가져오므로,
+ * 실제 커넥션 획득을 첫 쿼리 시점까지 미루는 LazyConnectionDataSourceProxy로 감싸서 사용해야 함 (RoutingDataSourceConfig 참고)
+ *
+ * 사용할 수 있는 replica가 없으면 (모두 복제 지연이 크거나 지연 조회에 실패하면) primary를 사용함
+ * 복제 지연은 커넥션을 얻을 때 조회하지 않고, 백그라운드 스레드가 lagCheckInterval마다 조회해서 replica별로 저장해 둠.
+ * 그래서 커넥션 획득은 지연 조회 쿼리를 기다리지 않음. 다 쓰면 close()로 백그라운드 스레드를 멈춰야 함
+ * LEAST_LATENCY는 같은 스레드가 그동안 선택되지 않은 replica의 커넥션 획득 시간도 다시 측정함 (Replica#probeLatencyIfUnused())
+ * 대상 데이터소스(커넥션 풀)는 닫지 않으므로 만든 쪽에서 닫아야 함
+ */
+public class ReplicationRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final LoadBalancing loadBalancing;
+    private final ReplicaLagProbe lagProbe;
+    private final Duration maxLag;
+    private final ScheduledExecutorService lagChecker;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicationRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, LoadBalancing loadBalancing,
+                                        ReplicaLagProbe lagProbe, Duration maxLag, Duration lagCheckInterval) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream()
+                .map(entry -> new Replica(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+        this.loadBalancing = loadBalancing;
+        this.lagProbe = lagProbe;
+        this.maxLag = maxLag;
+
+        // 첫 조회는 바로 해서 시작하자마자 지연된 replica로 보내지 않게 함
+        refreshLag();
+        this.lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = lagCheckInterval.toMillis();
+        lagChecker.scheduleWithFixedDelay(this::refreshLag, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primary.getConnection();
+        }
+
+        Replica replica = selectReplica();
+        return replica == null ? primary.getConnection() : replica.getConnection();
+    }
+
+    /**
+     * getConnection()과 같은 기준으로 대상을 고르고, 인증 정보는 고른 데이터소스에 그대로 넘김
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primary.getConnection(username, password);
+        }
+
+        Replica replica = selectReplica();
+        return replica == null ? primary.getConnection(username, password) : replica.getConnection(username, password);
+    }
+
+    @Override
+    public void close() {
+        lagChecker.shutdownNow();
+    }
+
+    private void refreshLag() {
+        for (Replica replica : replicas) {
+            replica.refreshLag(lagProbe, maxLag);
+            if (loadBalancing == LoadBalancing.LEAST_LATENCY && replica.isAvailable()) {
+                replica.probeLatencyIfUnused();
+            }
+        }
+    }
+
+    private Replica selectReplica() {
+        List<Replica> available = replicas.stream()
+                .filter(Replica::isAvailable)
+                .collect(Collectors.toList());
+        if (available.isEmpty()) {
+            return null;
+        }
+
+        if (loadBalancing == LoadBalancing.LEAST_LATENCY) {
+            Replica fastest = available.get(0);
+            for (Replica replica : available) {
+                if (replica.getLatencyNanos() < fastest.getLatencyNanos()) {
+                    fastest = replica;
+                }
+            }
+            return fastest;
+        }
+        return available.get(Math.floorMod(next.getAndIncrement(), available.size()));
+    }
+
+}
@@ -0,0 +1,90 @@
+package learn.springdatajpa.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 읽기/쓰기 분리 데이터소스 설정
+ *
+ * 로컬에서는 H2 인스턴스 여러 개를 primary, replica로 지정해서 확인할 수 있음. (replica에는 복제가 되지 않으므로 같은 H2 서버를 가리키게 해도 됨)
+ * springdatajpa:
+ *   routing-datasource:
+ *     enabled: true
+ *     primary: { url: jdbc:h2:tcp://localhost/~/springdatajpa, username: sa }
+ *     replicas:
+ *       - { name: replica1, url: jdbc:h2:tcp://localhost:9093/~/springdatajpa, username: sa }
+ *       - { name: replica2, url: jdbc:h2:tcp://localhost:9094/~/springdatajpa, username: sa }
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "springdatajpa.routing-datasource", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(RoutingDataSourceProperties.class)
+@Slf4j
+public class RoutingDataSourceConfig implements DisposableBean {
+
+    /**
+     * 빈으로 등록되는 건 LazyConnectionDataSourceProxy이므로 스프링이 닫아주지 않음.
+     * 복제 지연 확인 스레드와 primary/replica 커넥션 풀은 설정 클래스가 종료될 때 닫음
+     */
+    private ReplicationRoutingDataSource routing;
+
+    private final List<DataSource> targets = new ArrayList<>();
+
+    @Bean
+    public DataSource dataSource(RoutingDataSourceProperties properties, ObjectProvider<ReplicaLagProbe> lagProbe) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<RoutingDataSourceProperties.Node> nodes = properties.getReplicas();
+        for (int i = 0; i < nodes.size(); i++) {
+            RoutingDataSourceProperties.Node node = nodes.get(i);
+            replicas.put(node.getName() != null ? node.getName() : "replica" + i, build(node));
+        }
+
+        routing = new ReplicationRoutingDataSource(
+                build(properties.getPrimary()),
+                replicas,
+                properties.getLoadBalancing(),
+                lagProbe.getIfAvailable(() -> ReplicaLagProbe.NONE),
+                properties.getMaxLag(),
+                properties.getLagCheckInterval());
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Override
+    public void destroy() {
+        if (routing != null) {
+            routing.close();
+        }
+        for (DataSource target : targets) {
+            if (target instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) target).close();
+                } catch (Exception e) {
+                    log.warn("Failed to close routing target data source", e);
+                }
+            }
+        }
+    }
+
+    private DataSource build(RoutingDataSourceProperties.Node node) {
+        DataSource dataSource = DataSourceBuilder.create()
+                .url(node.getUrl())
+                .username(node.getUsername())
+                .password(node.getPassword())
+                .build();
+        targets.add(dataSource);
+        return dataSource;
+    }
+
+}
@@ -0,0 +1,58 @@
+package learn.springdatajpa.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 쓰기(primary) / 읽기(replica) 데이터소스 설정
+ *
+ * springdatajpa.routing-datasource.enabled=true 일 때만 사용되고, 이 경우 spring.datasource 설정 대신 이 설정으로 데이터소스를 만듦
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "springdatajpa.routing-datasource")
+public class RoutingDataSourceProperties {
+
+    private boolean enabled;
+
+    private Node primary = new Node();
+
+    private List<Node> replicas = new ArrayList<>();
+
+    private LoadBalancing loadBalancing = LoadBalancing.ROUND_ROBIN;
+
+    /**
+     * 복제 지연이 이 값보다 크면 해당 replica는 사용하지 않음
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * 복제 지연을 다시 확인하는 주기
+     */
+    private Duration lagCheckInterval = Duration.ofSeconds(10);
+
+    @Getter
+    @Setter
+    public static class Node {
+
+        private String name;
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+    }
+
+    public enum LoadBalancing {
+        ROUND_ROBIN,
+        LEAST_LATENCY
+    }
+
+}
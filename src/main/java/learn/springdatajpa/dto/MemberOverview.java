@@ -0,0 +1,20 @@
+package learn.springdatajpa.dto;
+
+import learn.springdatajpa.entity.Member;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class MemberOverview {
+
+    private Page<Member> members;
+
+    private List<MemberDto> memberDtos;
+
+    private long teamCount;
+
+}
@@ -1,21 +1,25 @@
 package learn.springdatajpa.entity;
 
+import learn.springdatajpa.event.EntityChangeListener;
 import lombok.Getter;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.Column;
 import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.Version;
 import java.time.LocalDateTime;
 
 @MappedSuperclass
-@EntityListeners(AuditingEntityListener.class) // JPA 이벤트 리스너 클래스 등록 (Auditing 이벤트 담당 클래스)
+@EntityListeners({
+        BaseEntityAuditingListener.class, // JPA 이벤트 리스너 클래스 등록 (Auditing 이벤트 담당 클래스)
+        EntityChangeListener.class // 엔티티 변경 이벤트 발행
+})
 @Getter
-public class BaseEntity {
+public abstract class BaseEntity {
 
     @CreatedDate
     @Column(updatable = false)
@@ -31,4 +35,31 @@ public class BaseEntity {
     @LastModifiedBy
     private String lastModifiedBy;
 
+    /*
+     낙관적 락
+     수정할 때 "update ... set version = version + 1 where id = ? and version = ?"로 실행해서, 그 사이에 다른 트랜잭션이 먼저 수정했으면
+     OptimisticLockException이 발생함. DB 락을 잡지 않으므로 충돌이 드문 경우 비관적 락보다 처리량이 높음 (충돌 시 재시도는 @OptimisticRetry)
+     */
+    @Version
+    private Long version;
+
+    /*
+     BaseEntityAuditingListener가 호출함. 스프링 데이터의 AuditingEntityListener와 마찬가지로 등록 시에는 수정 정보도 함께 채움
+     */
+    void markCreated(String auditor, LocalDateTime now) {
+        this.createdBy = auditor;
+        this.createdDate = now;
+        markModified(auditor, now);
+    }
+
+    void markModified(String auditor, LocalDateTime now) {
+        this.lastModifiedBy = auditor;
+        this.lastModifiedDate = now;
+    }
+
+    /**
+     * 식별자는 각 엔티티가 직접 매핑함 (Lombok @Getter가 생성한 getter가 구현)
+     */
+    public abstract Long getId();
+
 }
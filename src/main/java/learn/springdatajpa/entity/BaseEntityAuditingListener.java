@@ -0,0 +1,43 @@
+package learn.springdatajpa.entity;
+
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.domain.AuditorAware;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import java.time.LocalDateTime;
+
+/**
+ * BaseEntity 전용 Auditing 리스너
+ *
+ * 스프링 데이터의 AuditingEntityListener는 어떤 엔티티든 처리할 수 있도록 @CreatedDate 등이 붙은 필드를 찾아 리플렉션(프로퍼티 접근자)으로 값을 넣음.
+ * BaseEntity를 상속한 엔티티만 대상으로 하면 그럴 필요 없이 BaseEntity의 메서드를 직접 호출하면 됨.
+ * 사용자와 현재 시각은 트랜잭션 당 한 번만 조회하는 빈(TransactionScopedAuditorAware, TransactionScopedDateTimeProvider)에서 가져옴
+ */
+public class BaseEntityAuditingListener {
+
+    private final AuditorAware<String> auditorAware;
+    private final DateTimeProvider dateTimeProvider;
+
+    public BaseEntityAuditingListener(AuditorAware<String> auditorAware, DateTimeProvider dateTimeProvider) {
+        this.auditorAware = auditorAware;
+        this.dateTimeProvider = dateTimeProvider;
+    }
+
+    @PrePersist
+    public void touchForCreate(BaseEntity entity) {
+        entity.markCreated(auditorAware.getCurrentAuditor().orElse(null), now());
+    }
+
+    @PreUpdate
+    public void touchForUpdate(BaseEntity entity) {
+        entity.markModified(auditorAware.getCurrentAuditor().orElse(null), now());
+    }
+
+    private LocalDateTime now() {
+        return dateTimeProvider.getNow()
+                .map(LocalDateTime::from)
+                .orElseGet(LocalDateTime::now);
+    }
+
+}
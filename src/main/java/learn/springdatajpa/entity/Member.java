@@ -4,6 +4,8 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
@@ -11,13 +13,29 @@ import javax.persistence.*;
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
+@Table(indexes = {
+        // 키셋 페이징(MemberKeysetRepository)의 조건 + 정렬 키와 동일한 순서/방향의 인덱스
+        // 정렬 방향이 섞여 있으므로(username desc, member_id asc) 인덱스에도 방향을 똑같이 지정해야 DB가 정렬 없이 인덱스 순서대로 읽음
+        @Index(name = "idx_member_age_username_id", columnList = "age, username desc, member_id"),
+        // 증분 동기화(streamChangedSince)의 조건 + 정렬 키와 동일한 순서의 인덱스
+        @Index(name = "idx_member_last_modified_date_id", columnList = "last_modified_date, member_id")
+})
 @NamedQuery(
         name = "Member.findByUsername",
-        query = "select m from Member m where m.username = :username"
+        query = "select m from Member m where m.username = :username",
+        hints = @QueryHint(name = "org.hibernate.cacheable", value = "true") // 쿼리 캐시 사용
 )
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Member extends BaseEntity {
 
-    @Id @GeneratedValue
+    /*
+     allocationSize만큼 시퀀스 값을 미리 할당받아 메모리에서 나눠주는 pooled 옵티마이저가 적용됨
+     insert 마다 시퀀스를 조회하지 않으므로 JDBC 배치 insert가 제대로 동작함
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
     @Column(name = "member_id")
     private Long id;
 
@@ -49,4 +67,8 @@ public class Member extends BaseEntity {
         this.username = newUsername;
     }
 
+    public void changeAge(int newAge) {
+        this.age = newAge;
+    }
+
 }
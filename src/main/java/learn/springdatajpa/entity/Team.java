@@ -4,6 +4,9 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -13,14 +16,29 @@ import java.util.List;
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
+@Cacheable // 2차 캐시 사용. 조회가 대부분인 엔티티라서 DB 대신 캐시에서 가져옴
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@BatchSize(size = 100) // Member.team 프록시를 초기화할 때 아직 초기화되지 않은 다른 팀 프록시도 IN 절로 함께 조회
 public class Team extends BaseEntity {
 
-    @Id @GeneratedValue
+    /*
+     allocationSize만큼 시퀀스 값을 미리 할당받아 메모리에서 나눠주는 pooled 옵티마이저가 적용됨
+     insert 마다 시퀀스를 조회하지 않으므로 JDBC 배치 insert가 제대로 동작함
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50)
     @Column(name = "team_id")
     private Long id;
 
     private String name;
 
+    /*
+     여러 팀의 members를 차례로 초기화할 때 팀마다 한 번씩 조회하지 않고 최대 100개 팀의 회원을 IN 절로 한 번에 조회함 (N+1 -> 1+1)
+     한 번 조회한 팀들의 컬렉션을 모두 초기화하려면 @Fetch(FetchMode.SUBSELECT)를 사용할 수도 있음
+     */
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 컬렉션 캐시에는 회원 id만 저장되므로 Member도 캐시 대상이어야 효과가 있음
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
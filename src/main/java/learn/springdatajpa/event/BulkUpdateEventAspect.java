@@ -0,0 +1,27 @@
+package learn.springdatajpa.event;
+
+import learn.springdatajpa.entity.Member;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * 벌크 연산은 영속성 컨텍스트와 엔티티 리스너를 거치지 않으므로 EntityChangeListener로는 변경을 알 수 없음.
+ * 그래서 벌크 연산 메서드가 정상 종료된 이후에 BULK_UPDATE 이벤트를 대신 발행함
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class BulkUpdateEventAspect {
+
+    private final ApplicationEventPublisher publisher;
+
+    @AfterReturning("execution(* learn.springdatajpa.repository.MemberRepository.bulkAddAge(..))" +
+            " || execution(* learn.springdatajpa.repository.MemberJpaRepository.bulkAddAge(..))")
+    public void afterMemberBulkUpdate() {
+        publisher.publishEvent(EntityChangeEvent.bulkUpdate(Member.class));
+    }
+
+}
@@ -0,0 +1,32 @@
+package learn.springdatajpa.event;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * ChangeFeed#poll()의 결과
+ */
+@Getter
+public class ChangeBatch {
+
+    private final List<ChangeRecord> records;
+
+    /**
+     * 다음 poll()에 넘길 offset
+     */
+    private final long nextOffset;
+
+    /**
+     * 요청한 offset의 레코드가 이미 버려져서 중간 변경을 놓쳤는지.
+     * true이면 받은 쪽은 전체를 다시 동기화해야 함 (records는 남아 있는 가장 오래된 레코드부터 시작함)
+     */
+    private final boolean gap;
+
+    ChangeBatch(List<ChangeRecord> records, long nextOffset, boolean gap) {
+        this.records = records;
+        this.nextOffset = nextOffset;
+        this.gap = gap;
+    }
+
+}
@@ -0,0 +1,309 @@
+package learn.springdatajpa.event;
+
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.entity.Team;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 회원/팀의 등록, 수정, 삭제를 커밋된 순서대로 담아두는 메모리 변경 피드
+ *
+ * 다른 곳에서 findAll()로 전체를 읽고 lastModifiedDate를 비교하는 대신, 마지막으로 읽은 offset 이후의 변경만 poll()로 가져가면 됨.
+ * 트랜잭션 안에서 발생한 변경은 트랜잭션별로 모아뒀다가 커밋된 뒤에 한 번에 추가하므로,
+ * 롤백된 변경은 피드에 들어가지 않고 한 트랜잭션의 변경은 연속된 offset을 가짐.
+ *
+ * 최근 capacity 개의 레코드만 보관함. 프로세스 메모리에만 있으므로 재시작하면 offset은 0부터 다시 시작함
+ *
+ * 한 트랜잭션에서 maxTransactionChanges 개를 넘게 바꾸면(bulkInsert 등) 커밋까지 변경 목록을 모두 들고 있지 않고,
+ * 바뀐 타입마다 id 없는 BULK_UPDATE 레코드 하나로 합침. 그래서 트랜잭션 하나가 메모리를 무한정 쓰거나 링을 한 번에 밀어내서
+ * 모든 구독자를 gap 상태로 만들지 않음. 받은 쪽은 벌크 연산과 마찬가지로 해당 타입 전체를 다시 읽으면 됨
+ */
+@Component
+public class ChangeFeed {
+
+    private final ChangeRecord[] ring;
+
+    private final int maxTransactionChanges;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+
+    /**
+     * pollAsync()로 새 레코드를 기다리는 요청들
+     */
+    private final List<Waiter> waiters = new ArrayList<>();
+
+    /**
+     * 다음에 추가될 레코드의 offset
+     */
+    private long nextOffset;
+
+    public ChangeFeed(@Value("${springdatajpa.change-feed.capacity:100000}") int capacity,
+                      @Value("${springdatajpa.change-feed.max-transaction-changes:1000}") int maxTransactionChanges) {
+        if (capacity < 1 || maxTransactionChanges < 1) {
+            throw new IllegalArgumentException("Change feed capacity and max transaction changes must be positive: "
+                    + capacity + ", " + maxTransactionChanges);
+        }
+        this.ring = new ChangeRecord[capacity];
+        this.maxTransactionChanges = maxTransactionChanges;
+    }
+
+    @EventListener
+    public void onEntityChange(EntityChangeEvent event) {
+        String entityType = entityType(event);
+        if (entityType == null) {
+            return;
+        }
+
+        PendingChange change = new PendingChange(entityType, event.getId(), event.getChangeType());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(Collections.singletonList(change));
+            return;
+        }
+
+        // 변경 목록은 트랜잭션에 등록한 동기화 객체에 둠. REQUIRES_NEW로 바깥 트랜잭션이 보류되면 동기화 객체도 함께 빠지므로
+        // 안쪽 트랜잭션의 변경이 바깥 트랜잭션의 목록에 섞이지 않음
+        PendingChanges pending = currentPendingChanges();
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(change);
+    }
+
+    private PendingChanges currentPendingChanges() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingChanges && ((PendingChanges) synchronization).feed() == this) {
+                return (PendingChanges) synchronization;
+            }
+        }
+        return null;
+    }
+
+    private String entityType(EntityChangeEvent event) {
+        if (event.isFor(Member.class)) {
+            return Member.class.getSimpleName();
+        }
+        if (event.isFor(Team.class)) {
+            return Team.class.getSimpleName();
+        }
+        return null;
+    }
+
+    private void append(List<PendingChange> changes) {
+        Instant committedAt = Instant.now();
+        List<Waiter> ready;
+        List<ChangeBatch> batches;
+        lock.lock();
+        try {
+            for (PendingChange change : changes) {
+                ring[(int) (nextOffset % ring.length)] = new ChangeRecord(nextOffset, change.entityType, change.id, change.changeType, committedAt);
+                nextOffset++;
+            }
+            appended.signalAll();
+
+            ready = new ArrayList<>(waiters);
+            waiters.clear();
+            batches = new ArrayList<>(ready.size());
+            for (Waiter waiter : ready) {
+                batches.add(read(waiter.offset, waiter.maxRecords));
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // 기다리던 요청의 후속 처리가 락을 잡은 채로 실행되지 않도록 락을 놓은 뒤에 완료시킴
+        for (int i = 0; i < ready.size(); i++) {
+            ready.get(i).future.complete(batches.get(i));
+        }
+    }
+
+    /**
+     * offset부터 최대 maxRecords 개의 레코드를 반환함. 새 레코드가 없으면 바로 빈 결과를 반환함
+     */
+    public ChangeBatch poll(long offset, int maxRecords) {
+        return poll(offset, maxRecords, Duration.ZERO);
+    }
+
+    /**
+     * offset 이후의 레코드가 아직 없으면 최대 timeout 동안 새 레코드가 추가되기를 기다림 (long polling)
+     */
+    public ChangeBatch poll(long offset, int maxRecords, Duration timeout) {
+        validate(offset, maxRecords);
+
+        long nanos = timeout.toNanos();
+        lock.lock();
+        try {
+            while (offset == nextOffset && nanos > 0) {
+                nanos = appended.awaitNanos(nanos);
+            }
+            return read(offset, maxRecords);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ChangeBatch(Collections.emptyList(), offset, false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 스레드를 붙잡지 않는 long polling. offset 이후의 레코드가 이미 있으면 완료된 future를,
+     * 없으면 다음 커밋이 추가될 때 완료되는 future를 반환함
+     *
+     * 기다리는 쪽이 포기하면 future를 cancel() 해야 대기 목록에서 빠짐
+     */
+    public CompletableFuture<ChangeBatch> pollAsync(long offset, int maxRecords) {
+        validate(offset, maxRecords);
+
+        Waiter waiter;
+        lock.lock();
+        try {
+            if (offset != nextOffset) {
+                return CompletableFuture.completedFuture(read(offset, maxRecords));
+            }
+            waiter = new Waiter(offset, maxRecords);
+            waiters.add(waiter);
+        } finally {
+            lock.unlock();
+        }
+
+        waiter.future.whenComplete((batch, e) -> {
+            if (waiter.future.isCancelled()) {
+                removeWaiter(waiter);
+            }
+        });
+        return waiter.future;
+    }
+
+    private void removeWaiter(Waiter waiter) {
+        lock.lock();
+        try {
+            waiters.remove(waiter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * lock을 잡은 상태에서 호출
+     */
+    private ChangeBatch read(long offset, int maxRecords) {
+        // offset이 끝보다 뒤에 있으면 재시작 전의 offset이므로 놓친 변경이 있는 것으로 봄
+        long oldest = Math.max(0, nextOffset - ring.length);
+        boolean gap = offset < oldest || offset > nextOffset;
+        long from = gap ? oldest : offset;
+        long to = Math.min(nextOffset, from + maxRecords);
+
+        List<ChangeRecord> records = new ArrayList<>((int) Math.max(0, to - from));
+        for (long i = from; i < to; i++) {
+            records.add(ring[(int) (i % ring.length)]);
+        }
+        return new ChangeBatch(records, to, gap);
+    }
+
+    private static void validate(long offset, int maxRecords) {
+        if (offset < 0 || maxRecords < 1) {
+            throw new IllegalArgumentException("Invalid poll: offset=" + offset + ", maxRecords=" + maxRecords);
+        }
+    }
+
+    /**
+     * 다음에 추가될 레코드의 offset. 지금 이후의 변경부터 받고 싶을 때 시작 offset으로 사용
+     */
+    public long getEndOffset() {
+        lock.lock();
+        try {
+            return nextOffset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 한 트랜잭션에서 발생한 변경 목록. 커밋된 뒤에 피드에 추가함
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+
+        final List<PendingChange> changes = new ArrayList<>();
+
+        /**
+         * maxTransactionChanges를 넘은 뒤로는 개별 변경 대신 바뀐 타입만 모음
+         */
+        Set<String> bulkEntityTypes;
+
+        ChangeFeed feed() {
+            return ChangeFeed.this;
+        }
+
+        void add(PendingChange change) {
+            if (bulkEntityTypes == null && changes.size() < maxTransactionChanges) {
+                changes.add(change);
+                return;
+            }
+            if (bulkEntityTypes == null) {
+                bulkEntityTypes = new LinkedHashSet<>();
+                for (PendingChange buffered : changes) {
+                    bulkEntityTypes.add(buffered.entityType);
+                }
+                changes.clear();
+            }
+            bulkEntityTypes.add(change.entityType);
+        }
+
+        @Override
+        public void afterCommit() {
+            if (bulkEntityTypes == null) {
+                append(changes);
+                return;
+            }
+            List<PendingChange> bulk = new ArrayList<>(bulkEntityTypes.size());
+            for (String entityType : bulkEntityTypes) {
+                bulk.add(new PendingChange(entityType, null, EntityChangeType.BULK_UPDATE));
+            }
+            append(bulk);
+        }
+
+    }
+
+    private static final class Waiter {
+
+        final long offset;
+        final int maxRecords;
+        final CompletableFuture<ChangeBatch> future = new CompletableFuture<>();
+
+        Waiter(long offset, int maxRecords) {
+            this.offset = offset;
+            this.maxRecords = maxRecords;
+        }
+
+    }
+
+    private static final class PendingChange {
+
+        final String entityType;
+        final Long id;
+        final EntityChangeType changeType;
+
+        PendingChange(String entityType, Long id, EntityChangeType changeType) {
+            this.entityType = entityType;
+            this.id = id;
+            this.changeType = changeType;
+        }
+
+    }
+
+}
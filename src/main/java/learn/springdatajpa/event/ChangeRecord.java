@@ -0,0 +1,36 @@
+package learn.springdatajpa.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * 변경 피드의 레코드 하나. offset은 피드 안에서 1씩 증가하는 위치
+ *
+ * 벌크 연산이나 변경이 너무 많은 트랜잭션(BULK_UPDATE)은 어떤 행이 바뀌었는지 담지 않으므로 id가 null이고,
+ * 받은 쪽은 해당 타입 전체가 바뀌었을 수 있다고 보고 처리해야 함
+ */
+@Getter
+@ToString
+public class ChangeRecord {
+
+    private final long offset;
+
+    private final String entityType;
+
+    private final Long id;
+
+    private final EntityChangeType changeType;
+
+    private final Instant committedAt;
+
+    ChangeRecord(long offset, String entityType, Long id, EntityChangeType changeType, Instant committedAt) {
+        this.offset = offset;
+        this.entityType = entityType;
+        this.id = id;
+        this.changeType = changeType;
+        this.committedAt = committedAt;
+    }
+
+}
@@ -0,0 +1,36 @@
+package learn.springdatajpa.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 엔티티 등록/수정/삭제 이벤트
+ *
+ * 캐시 무효화처럼 엔티티 변경에 반응해야 하는 기능들이 리포지토리 코드에 흩어지지 않도록,
+ * 변경 사실을 스프링 이벤트로 발행하고 필요한 곳에서 @EventListener로 받아서 처리함.
+ */
+@Getter
+@ToString
+public class EntityChangeEvent {
+
+    private final Class<?> entityType;
+
+    private final Long id;
+
+    private final EntityChangeType changeType;
+
+    public EntityChangeEvent(Class<?> entityType, Long id, EntityChangeType changeType) {
+        this.entityType = entityType;
+        this.id = id;
+        this.changeType = changeType;
+    }
+
+    public static EntityChangeEvent bulkUpdate(Class<?> entityType) {
+        return new EntityChangeEvent(entityType, null, EntityChangeType.BULK_UPDATE);
+    }
+
+    public boolean isFor(Class<?> type) {
+        return type.isAssignableFrom(entityType);
+    }
+
+}
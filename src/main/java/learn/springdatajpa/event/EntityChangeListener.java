@@ -0,0 +1,44 @@
+package learn.springdatajpa.event;
+
+import learn.springdatajpa.entity.BaseEntity;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * 엔티티 변경을 EntityChangeEvent로 발행하는 JPA 엔티티 리스너
+ *
+ * 스프링 부트는 하이버네이트가 엔티티 리스너를 생성할 때 스프링 빈 팩토리를 사용하도록 설정해주므로(SpringBeanContainer),
+ * 엔티티 리스너도 생성자 주입을 받을 수 있음.
+ * 다만 @PostXxx 콜백은 flush 시점(insert/update/delete SQL 실행 직후)에 호출되므로, 이벤트 수신 시점에는 아직 커밋 전일 수 있음.
+ */
+public class EntityChangeListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    public EntityChangeListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostPersist
+    public void postPersist(BaseEntity entity) {
+        publish(entity, EntityChangeType.INSERT);
+    }
+
+    @PostUpdate
+    public void postUpdate(BaseEntity entity) {
+        publish(entity, EntityChangeType.UPDATE);
+    }
+
+    @PostRemove
+    public void postRemove(BaseEntity entity) {
+        publish(entity, EntityChangeType.DELETE);
+    }
+
+    private void publish(BaseEntity entity, EntityChangeType changeType) {
+        publisher.publishEvent(new EntityChangeEvent(entity.getClass(), entity.getId(), changeType));
+    }
+
+}
@@ -0,0 +1,15 @@
+package learn.springdatajpa.event;
+
+public enum EntityChangeType {
+
+    INSERT,
+    UPDATE,
+    DELETE,
+
+    /**
+     * 벌크 연산처럼 영속성 컨텍스트를 거치지 않는 변경. 어떤 엔티티가 바뀌었는지 알 수 없으므로 id가 없음
+     * ChangeFeed에서는 한 트랜잭션의 변경이 너무 많아 하나로 합친 경우에도 사용함
+     */
+    BULK_UPDATE
+
+}
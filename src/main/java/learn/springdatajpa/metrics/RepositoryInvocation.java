@@ -0,0 +1,38 @@
+package learn.springdatajpa.metrics;
+
+import lombok.Getter;
+
+/**
+ * 리포지토리 메서드 호출 하나 동안 하이버네이트에서 일어난 일을 모음. 현재 스레드에 묶여 있음
+ */
+@Getter
+class RepositoryInvocation {
+
+    private final String method;
+
+    private int entityLoadCount;
+
+    private long flushNanos;
+
+    private long flushStartedAt;
+
+    RepositoryInvocation(String method) {
+        this.method = method;
+    }
+
+    void entityLoad() {
+        entityLoadCount++;
+    }
+
+    void flushStarted() {
+        flushStartedAt = System.nanoTime();
+    }
+
+    void flushFinished() {
+        if (flushStartedAt != 0) {
+            flushNanos += System.nanoTime() - flushStartedAt;
+            flushStartedAt = 0;
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package learn.springdatajpa.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * 현재 스레드에서 실행 중인 리포지토리 메서드 호출(RepositoryInvocation)에 엔티티 로딩과 플러시 시간을 기록함
+ *
+ * 엔티티 로딩은 PostLoad 이벤트, 플러시 시간은 기본 플러시 리스너 앞뒤에 등록한 리스너가 알려줌 (RepositoryMetricsConfig).
+ * 리포지토리 메서드 밖에서 일어난 일은 기록하지 않음
+ */
+@Component
+public class RepositoryInvocationRecorder {
+
+    private final ThreadLocal<RepositoryInvocation> current = new ThreadLocal<>();
+
+    /**
+     * @return 새로 시작한 호출. 이미 리포지토리 메서드 안에서 호출됐으면(커스텀 구현에서 다른 리포지토리를 호출하는 경우 등) null
+     */
+    RepositoryInvocation begin(String method) {
+        if (current.get() != null) {
+            return null;
+        }
+        RepositoryInvocation invocation = new RepositoryInvocation(method);
+        current.set(invocation);
+        return invocation;
+    }
+
+    void end() {
+        current.remove();
+    }
+
+    /**
+     * 현재 스레드에서 실행 중인 리포지토리 메서드 (예: MemberRepository.findByUsername)
+     */
+    public Optional<String> currentMethod() {
+        return Optional.ofNullable(current.get()).map(RepositoryInvocation::getMethod);
+    }
+
+    void recordEntityLoad() {
+        RepositoryInvocation invocation = current.get();
+        if (invocation != null) {
+            invocation.entityLoad();
+        }
+    }
+
+    void flushStarted() {
+        RepositoryInvocation invocation = current.get();
+        if (invocation != null) {
+            invocation.flushStarted();
+        }
+    }
+
+    void flushFinished() {
+        RepositoryInvocation invocation = current.get();
+        if (invocation != null) {
+            invocation.flushFinished();
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package learn.springdatajpa.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 모든 리포지토리(커스텀 구현 메서드 포함)에 RepositoryMetricsInterceptor를 붙임
+ *
+ * 스프링 부트가 기본으로 제공하는 spring.data.repository.invocations 메트릭은 반환값을 볼 수 없고 트랜잭션 안쪽에서 측정되므로
+ * 끄고(management.metrics.data.repository.autotime.enabled=false) 이 메트릭을 사용함
+ */
+@Configuration
+public class RepositoryMetricsConfig {
+
+    /**
+     * BeanPostProcessor는 다른 빈보다 먼저 만들어지므로, 필요한 빈은 리포지토리 프록시를 만들 때 꺼내씀
+     */
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> registry,
+                                                                    ObjectProvider<RepositoryInvocationRecorder> recorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxyFactory, information) ->
+                                    proxyFactory.addAdvice(0, new RepositoryMetricsInterceptor(
+                                            information.getRepositoryInterface().getSimpleName(),
+                                            registry.getObject(),
+                                            recorder.getObject()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * 플러시 시간은 기본 플러시 리스너의 앞(prepend)과 뒤(append)에 리스너를 붙여서 잼
+     */
+    @Bean
+    public SmartInitializingSingleton repositoryInvocationListenerRegistrar(EntityManagerFactory emf, RepositoryInvocationRecorder recorder) {
+        return () -> {
+            EventListenerRegistry listeners = emf.unwrap(SessionFactoryImplementor.class)
+                    .getServiceRegistry()
+                    .getService(EventListenerRegistry.class);
+            listeners.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> recorder.recordEntityLoad());
+            listeners.prependListeners(EventType.FLUSH, (FlushEventListener) event -> recorder.flushStarted());
+            listeners.appendListeners(EventType.FLUSH, (FlushEventListener) event -> recorder.flushFinished());
+            listeners.prependListeners(EventType.AUTO_FLUSH, (AutoFlushEventListener) event -> recorder.flushStarted());
+            listeners.appendListeners(EventType.AUTO_FLUSH, (AutoFlushEventListener) event -> recorder.flushFinished());
+        };
+    }
+
+}
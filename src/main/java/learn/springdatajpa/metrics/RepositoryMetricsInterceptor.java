@@ -0,0 +1,128 @@
+package learn.springdatajpa.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
+
+/**
+ * 리포지토리 프록시의 가장 바깥에서 메서드 호출마다 지연 시간, 반환한 행 수, 로딩한 엔티티 수, 플러시 시간을 기록함
+ *
+ * 트랜잭션 인터셉터보다 바깥에 있으므로 커밋 시점의 플러시까지 지연 시간에 포함됨.
+ * 호출마다 태그로 미터를 찾지 않도록 메서드별 미터를 한 번만 만들어 둠
+ */
+class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    private final String repository;
+    private final MeterRegistry registry;
+    private final RepositoryInvocationRecorder recorder;
+
+    private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+
+    RepositoryMetricsInterceptor(String repository, MeterRegistry registry, RepositoryInvocationRecorder recorder) {
+        this.repository = repository;
+        this.registry = registry;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Meters methodMeters = meters.computeIfAbsent(invocation.getMethod(), this::register);
+        RepositoryInvocation current = recorder.begin(methodMeters.name);
+        if (current == null) {
+            return invocation.proceed();
+        }
+
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            long rows = rowCount(result);
+            if (rows >= 0) {
+                methodMeters.rows.record(rows);
+            }
+            return result;
+        } catch (Throwable e) {
+            methodMeters.errors.increment();
+            throw e;
+        } finally {
+            methodMeters.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            methodMeters.entityLoads.record(current.getEntityLoadCount());
+            if (current.getFlushNanos() > 0) {
+                methodMeters.flush.record(current.getFlushNanos(), TimeUnit.NANOSECONDS);
+            }
+            recorder.end();
+        }
+    }
+
+    /**
+     * 반환값이 조회 결과일 때의 행 수. 스트림처럼 호출 시점에 알 수 없거나 count 같은 스칼라 값이면 -1
+     */
+    private long rowCount(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Number || result instanceof Boolean || result instanceof Iterable
+                || result instanceof BaseStream || result instanceof Future) {
+            return -1;
+        }
+        return 1;
+    }
+
+    private Meters register(Method method) {
+        Tags tags = Tags.of("repository", repository, "method", method.getName());
+        return new Meters(
+                repository + "." + method.getName(),
+                Timer.builder("repository.invocations")
+                        .tags(tags)
+                        .publishPercentiles(0.5, 0.9, 0.99)
+                        .publishPercentileHistogram()
+                        .register(registry),
+                DistributionSummary.builder("repository.rows").tags(tags).register(registry),
+                DistributionSummary.builder("repository.entities.loaded").tags(tags).register(registry),
+                Timer.builder("repository.flush").tags(tags).register(registry),
+                Counter.builder("repository.errors").tags(tags).register(registry));
+    }
+
+    private static class Meters {
+
+        final String name;
+        final Timer latency;
+        final DistributionSummary rows;
+        final DistributionSummary entityLoads;
+        final Timer flush;
+        final Counter errors;
+
+        Meters(String name, Timer latency, DistributionSummary rows, DistributionSummary entityLoads, Timer flush, Counter errors) {
+            this.name = name;
+            this.latency = latency;
+            this.rows = rows;
+            this.entityLoads = entityLoads;
+            this.flush = flush;
+            this.errors = errors;
+        }
+
+    }
+
+}
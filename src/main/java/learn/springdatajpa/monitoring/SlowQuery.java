@@ -0,0 +1,53 @@
+package learn.springdatajpa.monitoring;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 기준 시간보다 오래 걸린 SQL 한 건
+ *
+ * 실행 계획(plan)은 EXPLAIN이 백그라운드에서 끝난 뒤에 채워지므로, 그 전에는 null
+ */
+@Getter
+public class SlowQuery {
+
+    private final String sql;
+
+    /**
+     * 바인딩된 파라미터 (순서대로, 문자열로 변환해서 보관). logParameters를 켜지 않으면 값 대신 타입만 남김 (예: ?String)
+     */
+    private final List<String> parameters;
+
+    /**
+     * 조회 쿼리는 읽은 행 수, 수정 쿼리는 변경된 행 수
+     * 조회 쿼리는 실행만으로 기준 시간을 넘었을 때만 행 수를 세므로, 결과를 읽느라 느려진 경우에는 -1
+     */
+    private final long rowCount;
+
+    private final long elapsedMillis;
+
+    /**
+     * SQL을 실행한 리포지토리 메서드. 리포지토리 밖에서 실행됐으면 null
+     */
+    private final String repositoryMethod;
+
+    private final LocalDateTime executedAt;
+
+    private volatile String plan;
+
+    SlowQuery(String sql, List<String> parameters, long rowCount, long elapsedMillis, String repositoryMethod, LocalDateTime executedAt) {
+        this.sql = sql;
+        this.parameters = parameters;
+        this.rowCount = rowCount;
+        this.elapsedMillis = elapsedMillis;
+        this.repositoryMethod = repositoryMethod;
+        this.executedAt = executedAt;
+    }
+
+    void setPlan(String plan) {
+        this.plan = plan;
+    }
+
+}
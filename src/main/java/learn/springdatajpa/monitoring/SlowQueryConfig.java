@@ -0,0 +1,43 @@
+package learn.springdatajpa.monitoring;
+
+import learn.springdatajpa.metrics.RepositoryInvocationRecorder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * springdatajpa.slow-query.enabled=true 이면 데이터소스를 SlowQueryDataSource로 감쌈
+ *
+ * SQL 디버그 로그를 켜지 않아도 기준 시간을 넘은 쿼리만 파라미터와 함께 남길 수 있음.
+ * 기록된 쿼리는 GET /slow-queries 로 확인
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "springdatajpa.slow-query", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(SlowQueryProperties.class)
+public class SlowQueryConfig {
+
+    @Bean
+    public SlowQueryLog slowQueryLog(SlowQueryProperties properties) {
+        return new SlowQueryLog(properties);
+    }
+
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog,
+                                                                     ObjectProvider<RepositoryInvocationRecorder> repositoryInvocations) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof SlowQueryDataSource)) {
+                    return new SlowQueryDataSource((DataSource) bean, slowQueryLog.getObject(), repositoryInvocations.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+}
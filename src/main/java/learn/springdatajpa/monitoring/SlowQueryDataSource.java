@@ -0,0 +1,249 @@
+package learn.springdatajpa.monitoring;
+
+import learn.springdatajpa.metrics.RepositoryInvocationRecorder;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PreparedStatement의 실행 시간을 재서 기준 시간을 넘으면 SlowQueryLog에 SQL, 바인딩된 파라미터, 행 수를 기록하는 데이터소스
+ *
+ * 조회 쿼리는 결과를 모두 읽는 시간까지 포함해야 하므로 executeQuery()부터 Statement를 닫을 때까지를 잼.
+ * (ResultSet을 닫지 않고 Statement만 닫아도 기록됨)
+ * 하이버네이트는 모든 SQL을 PreparedStatement로 실행하므로 Statement/CallableStatement는 감싸지 않음
+ *
+ * 프록시는 호출마다 리플렉션을 거치므로, 쿼리마다 몇 번만 호출되는 Connection과 PreparedStatement만 감쌈.
+ * 행마다 여러 번 호출되는 ResultSet은 실행(execute)만으로 이미 기준 시간을 넘은 쿼리일 때만 행 수를 세기 위해 감쌈
+ */
+class SlowQueryDataSource extends DelegatingDataSource {
+
+    private static final int MAX_PARAMETER_LENGTH = 100;
+
+    private final SlowQueryLog slowQueryLog;
+    private final RepositoryInvocationRecorder repositoryInvocations;
+
+    SlowQueryDataSource(DataSource target, SlowQueryLog slowQueryLog, RepositoryInvocationRecorder repositoryInvocations) {
+        super(target);
+        this.slowQueryLog = slowQueryLog;
+        this.repositoryInvocations = repositoryInvocations;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(SlowQueryDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * 파라미터 값에는 개인정보가 들어갈 수 있으므로 springdatajpa.slow-query.log-parameters를 켜지 않으면 타입만 남김
+     */
+    private String print(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (!slowQueryLog.isLogParameters()) {
+            return "?" + value.getClass().getSimpleName();
+        }
+        String text = String.valueOf(value);
+        return text.length() > MAX_PARAMETER_LENGTH ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text;
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            Object result = SlowQueryDataSource.invoke(target, method, args);
+            if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement) {
+                return proxy(PreparedStatement.class, new StatementHandler((PreparedStatement) result, (String) args[0]));
+            }
+            return result;
+        }
+
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final PreparedStatement target;
+        private final String sql;
+
+        /**
+         * 파라미터 인덱스 순서대로 정렬해 둠. 배치 실행이면 마지막으로 바인딩된 값이 남음
+         */
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        /**
+         * 결과를 읽는 중인 조회 쿼리. Statement나 ResultSet을 닫으면 기록하고 비움
+         */
+        private Execution reading;
+
+        StatementHandler(PreparedStatement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if (name.equals("close")) {
+                finishReading();
+            } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            }
+            return SlowQueryDataSource.invoke(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finishReading(); // 같은 Statement를 다시 실행하면 이전 결과는 다 읽은 것으로 봄
+            Execution execution = new Execution(System.nanoTime(), repositoryInvocations.currentMethod().orElse(null));
+            Object result;
+            try {
+                result = SlowQueryDataSource.invoke(target, method, args);
+            } catch (Throwable e) {
+                record(execution, -1);
+                throw e;
+            }
+            if (result instanceof ResultSet) {
+                reading = execution;
+                if (System.nanoTime() - execution.startedAt >= slowQueryLog.getThresholdNanos()) {
+                    execution.rowCount = 0;
+                    return proxy(ResultSet.class, new ResultSetHandler((ResultSet) result, execution, this));
+                }
+                return result;
+            }
+            record(execution, rowCount(result));
+            return result;
+        }
+
+        private long rowCount(Object result) {
+            if (result instanceof Number) {
+                return ((Number) result).longValue();
+            }
+            if (result instanceof int[]) {
+                long sum = 0;
+                for (int count : (int[]) result) {
+                    sum += Math.max(count, 0);
+                }
+                return sum;
+            }
+            return -1;
+        }
+
+        void finishReading() {
+            if (reading != null) {
+                Execution execution = reading;
+                reading = null;
+                record(execution, execution.rowCount);
+            }
+        }
+
+        private void record(Execution execution, long rowCount) {
+            long elapsed = System.nanoTime() - execution.startedAt;
+            if (elapsed < slowQueryLog.getThresholdNanos()) {
+                return;
+            }
+            List<Object> values = new ArrayList<>(parameters.values());
+            List<String> printed = new ArrayList<>(values.size());
+            for (Object value : values) {
+                printed.add(print(value));
+            }
+            slowQueryLog.record(
+                    new SlowQuery(sql, printed, rowCount, TimeUnit.NANOSECONDS.toMillis(elapsed), execution.repositoryMethod, LocalDateTime.now()),
+                    values,
+                    getTargetDataSource());
+        }
+
+    }
+
+    /**
+     * SQL 한 번의 실행
+     */
+    private static class Execution {
+
+        final long startedAt;
+        final String repositoryMethod;
+
+        /**
+         * 읽은 행 수. ResultSet을 감싸지 않은 조회 쿼리는 세지 않으므로 -1
+         */
+        long rowCount = -1;
+
+        Execution(long startedAt, String repositoryMethod) {
+            this.startedAt = startedAt;
+            this.repositoryMethod = repositoryMethod;
+        }
+
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet target;
+        private final Execution execution;
+        private final StatementHandler statement;
+
+        ResultSetHandler(ResultSet target, Execution execution, StatementHandler statement) {
+            this.target = target;
+            this.execution = execution;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SlowQueryDataSource.invoke(target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                execution.rowCount++;
+            } else if (method.getName().equals("close")) {
+                statement.finishReading();
+            }
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,116 @@
+package learn.springdatajpa.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 최근 느린 쿼리를 정해진 개수만큼 보관하는 링 버퍼
+ *
+ * EXPLAIN은 SQL을 실행한 스레드를 붙잡지 않도록 스레드 하나짜리 풀에서 실행함.
+ * 대기열이 가득 차면 EXPLAIN은 건너뜀 (느린 쿼리가 몰릴 때 EXPLAIN이 DB 부하를 더하지 않게 함)
+ */
+@Slf4j
+public class SlowQueryLog implements DisposableBean {
+
+    private static final int EXPLAIN_QUEUE_CAPACITY = 16;
+
+    private final SlowQueryProperties properties;
+
+    private final Deque<SlowQuery> queries = new ArrayDeque<>();
+
+    private final ThreadPoolExecutor explainExecutor;
+
+    public SlowQueryLog(SlowQueryProperties properties) {
+        this.properties = properties;
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(EXPLAIN_QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    public long getThresholdNanos() {
+        return properties.getThreshold().toNanos();
+    }
+
+    boolean isLogParameters() {
+        return properties.isLogParameters();
+    }
+
+    /**
+     * @param parameters        EXPLAIN에 다시 바인딩할 원래 파라미터 값
+     * @param explainDataSource EXPLAIN을 실행할 데이터소스. 느린 쿼리 기록 대상이 아닌 원래 데이터소스를 넘겨야 함
+     */
+    void record(SlowQuery query, List<Object> parameters, DataSource explainDataSource) {
+        log.warn("Slow query ({}ms, {} rows) from {}: {} {}",
+                query.getElapsedMillis(), query.getRowCount(), query.getRepositoryMethod(), query.getSql(), query.getParameters());
+
+        synchronized (queries) {
+            if (queries.size() == properties.getCapacity()) {
+                queries.removeFirst();
+            }
+            queries.addLast(query);
+        }
+
+        if (properties.isExplain() && query.getSql().trim().toLowerCase(Locale.ROOT).startsWith("select")) {
+            explainExecutor.execute(() -> query.setPlan(explain(query.getSql(), parameters, explainDataSource)));
+        }
+    }
+
+    /**
+     * 오래된 것부터 최근 순서
+     */
+    public List<SlowQuery> recent() {
+        synchronized (queries) {
+            return new ArrayList<>(queries);
+        }
+    }
+
+    private String explain(String sql, List<Object> parameters, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            StringJoiner plan = new StringJoiner("\n");
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                while (resultSet.next()) {
+                    StringJoiner row = new StringJoiner(" | ");
+                    for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                        row.add(String.valueOf(resultSet.getObject(column)));
+                    }
+                    plan.add(row.toString());
+                }
+            }
+            return plan.toString();
+        } catch (SQLException e) {
+            return "EXPLAIN failed: " + e.getMessage();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        explainExecutor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,41 @@
+package learn.springdatajpa.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 느린 쿼리 기록 설정
+ *
+ * springdatajpa.slow-query.enabled=true 일 때만 데이터소스를 감싸서 SQL 실행 시간을 잼
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "springdatajpa.slow-query")
+public class SlowQueryProperties {
+
+    private boolean enabled;
+
+    /**
+     * 실행(execute)부터 결과를 모두 읽고 Statement를 닫을 때까지 걸린 시간이 이 값 이상이면 기록함
+     */
+    private Duration threshold = Duration.ofMillis(200);
+
+    /**
+     * 최근 느린 쿼리를 몇 개까지 보관할지. 넘으면 가장 오래된 것부터 버림
+     */
+    private int capacity = 100;
+
+    /**
+     * 느린 조회 쿼리에 대해 EXPLAIN을 백그라운드에서 실행할지
+     */
+    private boolean explain;
+
+    /**
+     * 바인딩된 파라미터 값을 그대로 남길지. 개인정보가 들어갈 수 있으므로 기본값은 타입만 남김 (로컬에서 재현할 때만 켬)
+     */
+    private boolean logParameters;
+
+}
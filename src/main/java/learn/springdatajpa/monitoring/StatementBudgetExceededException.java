@@ -0,0 +1,9 @@
+package learn.springdatajpa.monitoring;
+
+public class StatementBudgetExceededException extends RuntimeException {
+
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+
+}
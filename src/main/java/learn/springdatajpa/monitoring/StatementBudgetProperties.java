@@ -0,0 +1,37 @@
+package learn.springdatajpa.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 한 범위(HTTP 요청 등) 안에서 허용하는 SQL 실행 횟수
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "springdatajpa.statement-budget")
+public class StatementBudgetProperties {
+
+    /**
+     * 범위 하나에서 실행할 수 있는 최대 SQL 개수. 음수면 제한 없음
+     */
+    private int maxStatements = -1;
+
+    /**
+     * 같은 모양의 SQL이 이 횟수 이상 반복되면 N+1 문제로 판단함
+     */
+    private int repeatThreshold = 5;
+
+    private Action action = Action.LOG;
+
+    public enum Action {
+        LOG,
+        /**
+         * 코드에서 직접 연 범위(StatementRecorder#open, 테스트 등)에서만 예외를 던짐. HTTP 요청 범위는 로그와 메트릭만 남김
+         */
+        FAIL
+    }
+
+}
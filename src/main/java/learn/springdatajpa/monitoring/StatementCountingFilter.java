@@ -0,0 +1,32 @@
+package learn.springdatajpa.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * HTTP 요청 하나를 StatementScope 하나로 묶어서 요청별 SQL 실행 횟수를 집계함
+ *
+ * 범위를 닫는 시점에는 응답이 이미 클라이언트로 나갔을 수 있어서 예외를 던져도 상태 코드를 바꿀 수 없으므로,
+ * 기준을 넘으면 action과 상관없이 로그와 메트릭(statement.budget.exceeded)만 남김
+ */
+@Component
+@RequiredArgsConstructor
+public class StatementCountingFilter extends OncePerRequestFilter {
+
+    private final StatementRecorder recorder;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        try (StatementScope ignored = recorder.openReportOnly(request.getMethod() + " " + request.getRequestURI())) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+}
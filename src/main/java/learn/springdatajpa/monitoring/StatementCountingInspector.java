@@ -0,0 +1,23 @@
+package learn.springdatajpa.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * 하이버네이트가 JDBC PreparedStatement를 만들 때마다 호출됨.
+ * JDBC 배치는 PreparedStatement 하나로 여러 건을 보내므로, 이 횟수가 곧 DB 왕복 횟수에 가까움
+ */
+@Component
+@RequiredArgsConstructor
+public class StatementCountingInspector implements StatementInspector {
+
+    private final StatementRecorder recorder;
+
+    @Override
+    public String inspect(String sql) {
+        recorder.recordStatement(sql);
+        return sql;
+    }
+
+}
@@ -0,0 +1,28 @@
+package learn.springdatajpa.monitoring;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+
+@Configuration
+public class StatementMonitoringConfig {
+
+    /**
+     * 엔티티 로딩 횟수는 하이버네이트 PostLoad 이벤트로 셈.
+     * EntityManagerFactory가 만들어진 이후에 리스너를 추가해야 하므로 모든 싱글톤 빈 생성이 끝난 시점에 등록함
+     */
+    @Bean
+    public SmartInitializingSingleton entityLoadCountingRegistrar(EntityManagerFactory emf, StatementRecorder recorder) {
+        return () -> emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> recorder.recordEntityLoad());
+    }
+
+}
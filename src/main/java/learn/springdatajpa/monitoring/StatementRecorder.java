@@ -0,0 +1,100 @@
+package learn.springdatajpa.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 현재 스레드에서 실행되는 SQL과 엔티티 로딩을 열려 있는 StatementScope에 기록함
+ *
+ * SQL은 하이버네이트 StatementInspector(StatementCountingInspector)가, 엔티티 로딩은 PostLoad 이벤트 리스너가 알려줌.
+ * 범위를 닫을 때 StatementBudgetProperties의 기준을 넘었는지 확인해서 로그와 메트릭(statement.budget.exceeded)을 남기고,
+ * 코드에서 직접 연 범위는 설정에 따라 예외를 던짐
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatementRecorder {
+
+    private final StatementBudgetProperties budget;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final ThreadLocal<StatementScope> current = new ThreadLocal<>();
+
+    public StatementScope open(String name) {
+        return open(name, true);
+    }
+
+    /**
+     * 기준을 넘어도 예외를 던지지 않는 범위. 닫는 시점에 이미 응답이 커밋됐을 수 있는 HTTP 요청 범위에서 사용
+     */
+    StatementScope openReportOnly(String name) {
+        return open(name, false);
+    }
+
+    private StatementScope open(String name, boolean enforced) {
+        StatementScope scope = new StatementScope(name, current.get(), this, enforced);
+        current.set(scope);
+        return scope;
+    }
+
+    void recordStatement(String sql) {
+        for (StatementScope scope = current.get(); scope != null; scope = scope.getParent()) {
+            scope.statement(sql);
+        }
+    }
+
+    void recordEntityLoad() {
+        for (StatementScope scope = current.get(); scope != null; scope = scope.getParent()) {
+            scope.entityLoad();
+        }
+    }
+
+    void close(StatementScope scope) {
+        if (scope.getParent() == null) {
+            current.remove();
+        } else {
+            current.set(scope.getParent());
+        }
+        checkBudget(scope);
+    }
+
+    private void checkBudget(StatementScope scope) {
+        List<String> violations = new ArrayList<>();
+
+        if (budget.getMaxStatements() >= 0 && scope.getStatementCount() > budget.getMaxStatements()) {
+            violations.add(String.format("%d statements executed (budget %d)", scope.getStatementCount(), budget.getMaxStatements()));
+            countViolation("statements");
+        }
+        for (Map.Entry<String, Integer> repeated : scope.getRepeatedStatements(budget.getRepeatThreshold()).entrySet()) {
+            violations.add(String.format("possible N+1, executed %d times: %s", repeated.getValue(), repeated.getKey()));
+            countViolation("repeated");
+        }
+
+        if (violations.isEmpty()) {
+            log.debug("[{}] statements={}, entityLoads={}", scope.getName(), scope.getStatementCount(), scope.getEntityLoadCount());
+            return;
+        }
+
+        String message = "[" + scope.getName() + "] " + String.join("; ", violations);
+        if (scope.isEnforced() && budget.getAction() == StatementBudgetProperties.Action.FAIL) {
+            throw new StatementBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+
+    /**
+     * 범위 이름(요청 URI 등)은 값이 너무 다양하므로 태그로 쓰지 않고 위반 종류만 태그로 남김
+     */
+    private void countViolation(String violation) {
+        meterRegistry.ifAvailable(registry -> registry.counter("statement.budget.exceeded", "violation", violation).increment());
+    }
+
+}
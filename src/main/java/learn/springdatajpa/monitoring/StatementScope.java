@@ -0,0 +1,82 @@
+package learn.springdatajpa.monitoring;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * SQL 실행 횟수와 엔티티 로딩 횟수를 세는 범위
+ *
+ * StatementRecorder#open()으로 열고 close()로 닫음. 현재 스레드에 묶여 있으므로 스레드 간에 공유하면 안 됨.
+ * 범위가 중첩되면 안쪽 범위에서 실행된 SQL은 바깥쪽 범위에도 함께 집계됨
+ */
+@Getter
+public class StatementScope implements AutoCloseable {
+
+    private final String name;
+
+    private final StatementScope parent;
+
+    private final StatementRecorder recorder;
+
+    /**
+     * 기준을 넘었을 때 StatementBudgetProperties.Action.FAIL이면 예외를 던질지. false면 로그와 메트릭만 남김
+     */
+    private final boolean enforced;
+
+    private int statementCount;
+
+    private int entityLoadCount;
+
+    /**
+     * 하이버네이트가 만드는 SQL은 파라미터가 모두 '?'로 바인딩되므로 SQL 문자열 자체가 쿼리의 "모양"이 됨
+     */
+    private final Map<String, Integer> statementCounts = new LinkedHashMap<>();
+
+    StatementScope(String name, StatementScope parent, StatementRecorder recorder, boolean enforced) {
+        this.name = name;
+        this.parent = parent;
+        this.recorder = recorder;
+        this.enforced = enforced;
+    }
+
+    void statement(String sql) {
+        statementCount++;
+        statementCounts.merge(sql, 1, Integer::sum);
+    }
+
+    void entityLoad() {
+        entityLoadCount++;
+    }
+
+    /**
+     * threshold 번 이상 실행된 SQL과 그 실행 횟수
+     *
+     * insert/update/delete는 제외함. JDBC 배치를 쓰면 batch_size 건마다 같은 SQL로 PreparedStatement를 다시 만드므로,
+     * 많이 저장할수록 반복되는 게 정상이고 N+1 문제가 아님
+     */
+    public Map<String, Integer> getRepeatedStatements(int threshold) {
+        return statementCounts.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold && !isBatchable(entry.getKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private static boolean isBatchable(String sql) {
+        String statement = sql.trim().toLowerCase(Locale.ROOT);
+        return statement.startsWith("insert") || statement.startsWith("update") || statement.startsWith("delete");
+    }
+
+    public Map<String, Integer> getStatementCounts() {
+        return Collections.unmodifiableMap(statementCounts);
+    }
+
+    @Override
+    public void close() {
+        recorder.close(this);
+    }
+
+}
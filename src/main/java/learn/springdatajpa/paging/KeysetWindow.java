@@ -0,0 +1,32 @@
+package learn.springdatajpa.paging;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 키셋(seek) 페이징의 조회 결과 한 구간
+ *
+ * OFFSET 페이징의 Page/Slice와 달리 페이지 번호가 없고, 다음 구간을 조회할 때 사용할 불투명(opaque) 토큰만 가짐.
+ * REST 계층에서는 nextToken을 그대로 클라이언트에 내려주고, 다음 요청 때 그대로 돌려받아 사용하면 됨.
+ */
+@Getter
+@ToString
+public class KeysetWindow<T> {
+
+    private final List<T> content;
+
+    private final String nextToken;
+
+    public KeysetWindow(List<T> content, String nextToken) {
+        this.content = Collections.unmodifiableList(content);
+        this.nextToken = nextToken;
+    }
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+
+}
@@ -0,0 +1,58 @@
+package learn.springdatajpa.paging;
+
+import learn.springdatajpa.entity.Member;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * (last_modified_date asc, member_id asc) 정렬 기준의 변경 조회 커서 (워터마크)
+ *
+ * 마지막으로 처리한 회원의 수정 시각과 id를 "id:수정시각(ISO-8601)" 형태로 묶어 URL-safe Base64로 인코딩함.
+ * 동기화 작업은 이 토큰을 저장해 두었다가 다음 실행 때 이어서 조회함
+ */
+@Getter
+@ToString
+public class MemberChangeCursor {
+
+    /**
+     * 처음부터 조회할 때 사용하는 커서
+     */
+    public static final MemberChangeCursor START = new MemberChangeCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+    private final LocalDateTime lastModifiedDate;
+
+    private final long id;
+
+    public MemberChangeCursor(LocalDateTime lastModifiedDate, long id) {
+        this.lastModifiedDate = lastModifiedDate;
+        this.id = id;
+    }
+
+    public static MemberChangeCursor of(Member member) {
+        return new MemberChangeCursor(member.getLastModifiedDate(), member.getId());
+    }
+
+    public String encode() {
+        String raw = id + ":" + lastModifiedDate;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberChangeCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':'); // 수정 시각에도 ':'가 포함되므로 첫 번째 구분자만 사용
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed change cursor: " + token);
+            }
+            return new MemberChangeCursor(LocalDateTime.parse(raw.substring(separator + 1)), Long.parseLong(raw.substring(0, separator)));
+        } catch (IllegalArgumentException | DateTimeParseException e) { // Base64 디코딩 실패와 NumberFormatException 포함
+            throw new IllegalArgumentException("Malformed change cursor: " + token, e);
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package learn.springdatajpa.paging;
+
+import learn.springdatajpa.entity.Member;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * (username desc, member_id asc) 정렬 기준의 키셋 커서
+ *
+ * 조회 조건인 age와 마지막으로 조회한 회원의 username, id를 "age:id:username" 형태로 묶어 URL-safe Base64로 인코딩함.
+ * 클라이언트 입장에서는 내용을 알 수 없는 불투명 토큰이고, 서버는 디코딩해서 다음 구간의 시작점으로 사용함.
+ * age를 함께 담아 두므로 다른 age의 조회에 토큰을 넘기면 거부할 수 있음
+ */
+@Getter
+public class MemberKeysetCursor {
+
+    private final int age;
+
+    private final String username;
+
+    private final Long id;
+
+    public MemberKeysetCursor(int age, String username, Long id) {
+        this.age = age;
+        this.username = username;
+        this.id = id;
+    }
+
+    public static MemberKeysetCursor of(int age, Member member) {
+        return new MemberKeysetCursor(age, member.getUsername(), member.getId());
+    }
+
+    public String encode() {
+        String raw = age + ":" + id + ":" + username;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberKeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // username에 ':'가 포함될 수 있으므로 앞의 두 구분자만 사용
+            int ageSeparator = raw.indexOf(':');
+            int idSeparator = ageSeparator < 0 ? -1 : raw.indexOf(':', ageSeparator + 1);
+            if (idSeparator < 0) {
+                throw new IllegalArgumentException("Malformed keyset token: " + token);
+            }
+            return new MemberKeysetCursor(
+                    Integer.parseInt(raw.substring(0, ageSeparator)),
+                    raw.substring(idSeparator + 1),
+                    Long.valueOf(raw.substring(ageSeparator + 1, idSeparator)));
+        } catch (IllegalArgumentException e) { // Base64 디코딩 실패와 NumberFormatException 모두 포함
+            throw new IllegalArgumentException("Malformed keyset token: " + token, e);
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+package learn.springdatajpa.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * MemberProjection의 불변 구현체
+ * 스프링 데이터가 만드는 프록시 대신 JDBC 조회 결과를 바로 담을 때 사용
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class MemberProjectionRow implements MemberProjection {
+
+    private final Long id;
+
+    private final String username;
+
+    private final String teamName;
+
+}
@@ -0,0 +1,22 @@
+package learn.springdatajpa.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 청크 단위 벌크 업데이트 진행 상황
+ * 중단된 작업은 lastProcessedId를 resumeAfterId로 넘겨서 이어서 실행할 수 있음
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class BulkUpdateProgress {
+
+    private final long lastProcessedId;
+
+    private final long updatedCount;
+
+    private final int chunkCount;
+
+}
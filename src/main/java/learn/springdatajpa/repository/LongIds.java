@@ -0,0 +1,68 @@
+package learn.springdatajpa.repository;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * long[] 식별자 배열을 다루는 도구
+ *
+ * 수백만 개의 식별자를 List<Long>으로 들고 있으면 Long 객체와 참조 때문에 long[]보다 몇 배의 메모리를 씀.
+ * 식별자는 끝까지 long[]로 들고 있다가, 쿼리 파라미터로 넘길 조각만 그때그때 List로 보여줌
+ */
+final class LongIds {
+
+    private LongIds() {
+    }
+
+    /**
+     * 정렬하고 중복을 제거한 새 배열. 원래 배열은 바꾸지 않음
+     */
+    static long[] distinctSorted(long[] ids) {
+        long[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        int size = 0;
+        for (long id : sorted) {
+            if (size == 0 || sorted[size - 1] != id) {
+                sorted[size++] = id;
+            }
+        }
+        return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+    }
+
+    /**
+     * ids[from, to) 구간을 복사하지 않고 List로 보여줌. 요소를 꺼낼 때만 Long으로 박싱됨
+     */
+    static List<Long> view(long[] ids, int from, int to) {
+        return new LongListView(ids, from, to);
+    }
+
+    private static final class LongListView extends AbstractList<Long> implements RandomAccess {
+
+        private final long[] ids;
+        private final int from;
+        private final int size;
+
+        LongListView(long[] ids, int from, int to) {
+            this.ids = ids;
+            this.from = from;
+            this.size = to - from;
+        }
+
+        @Override
+        public Long get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return ids[from + index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+    }
+
+}
@@ -0,0 +1,139 @@
+package learn.springdatajpa.repository;
+
+import learn.springdatajpa.audit.TransactionScopedDateTimeProvider;
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.event.EntityChangeEvent;
+import learn.springdatajpa.event.EntityChangeType;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 청크 단위 벌크 업데이트
+ *
+ * bulkAddAge()는 조건에 맞는 모든 행을 한 트랜잭션에서 수정하기 때문에, 데이터가 많으면 수정이 끝날 때까지 행 락을 오래 잡고
+ * undo/redo 로그도 크게 쌓임. 여기서는 회원 id 순서로 chunkSize 개씩 끊어서 청크마다 별도의 트랜잭션(REQUIRES_NEW)으로 커밋함.
+ * 청크 사이에 쉬는 시간을 줘서 부하를 조절할 수 있고, 마지막으로 처리한 id부터 다시 시작할 수 있음.
+ *
+ * 주의: 청크는 호출한 쪽과 다른 트랜잭션에서 실행되므로, 호출한 트랜잭션에서 수정 중인 회원이 있으면 락을 기다리게 됨.
+ * 가급적 트랜잭션 밖에서 호출할 것
+ */
+@Component
+public class MemberBulkUpdateExecutor {
+
+    private final EntityManager em;
+    private final TransactionTemplate chunkTransaction;
+    private final ApplicationEventPublisher publisher;
+    private final TransactionScopedDateTimeProvider dateTimeProvider;
+
+    public MemberBulkUpdateExecutor(EntityManager em, PlatformTransactionManager transactionManager, ApplicationEventPublisher publisher,
+                                    TransactionScopedDateTimeProvider dateTimeProvider) {
+        this.em = em;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.publisher = publisher;
+        this.dateTimeProvider = dateTimeProvider;
+    }
+
+    public BulkUpdateProgress addAge(int age, int chunkSize) {
+        return addAge(age, chunkSize, 0L, Duration.ZERO, progress -> {});
+    }
+
+    /**
+     * bulkAddAge()와 같이 나이가 age 이상인 회원의 나이를 1 증가시킴
+     *
+     * @param resumeAfterId 이 id 이후의 회원부터 처리함. 처음부터 실행할 때는 0
+     * @param pause         청크 사이에 쉬는 시간
+     * @param listener      청크가 커밋될 때마다 진행 상황을 받음
+     */
+    public BulkUpdateProgress addAge(int age, int chunkSize, long resumeAfterId, Duration pause, Consumer<BulkUpdateProgress> listener) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+
+        BulkUpdateProgress progress = new BulkUpdateProgress(resumeAfterId, 0, 0);
+        while (true) {
+            long lastId = progress.getLastProcessedId();
+            List<Long> ids = chunkTransaction.execute(status -> addAgeChunk(age, lastId, chunkSize));
+            if (ids == null || ids.isEmpty()) {
+                return progress;
+            }
+
+            progress = new BulkUpdateProgress(ids.get(ids.size() - 1), progress.getUpdatedCount() + ids.size(), progress.getChunkCount() + 1);
+            refreshManaged(ids);
+            listener.accept(progress);
+            sleep(pause);
+        }
+    }
+
+    /**
+     * 수정할 회원의 id를 먼저 조회해서 (id > lastId 조건으로 키셋 탐색) 그 id들만 수정함.
+     * 조회와 수정 사이에 다른 트랜잭션이 나이를 바꿨을 수 있으므로 수정 쿼리에도 나이 조건을 한 번 더 걸어줌
+     * versioned(하이버네이트 HQL 문법)는 version도 함께 증가시켜서, 같은 회원을 수정 중이던 다른 트랜잭션이 낙관적 락 충돌을 알 수 있게 함
+     */
+    private List<Long> addAgeChunk(int age, long lastId, int chunkSize) {
+        List<Long> ids = em.createQuery("select m.id from Member m where m.age >= :age and m.id > :lastId order by m.id", Long.class)
+                .setParameter("age", age)
+                .setParameter("lastId", lastId)
+                .setMaxResults(chunkSize)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        em.createQuery("update versioned Member m set m.age = m.age + 1, m.lastModifiedDate = :now where m.id in :ids and m.age >= :age")
+                .setParameter("ids", ids)
+                .setParameter("age", age)
+                .setParameter("now", dateTimeProvider.now())
+                .executeUpdate();
+
+        for (Long id : ids) {
+            publisher.publishEvent(new EntityChangeEvent(Member.class, id, EntityChangeType.UPDATE));
+        }
+        return ids;
+    }
+
+    /**
+     * 호출한 쪽의 영속성 컨텍스트를 통째로 clear() 하는 대신, 수정된 회원 중에서 영속 상태인 엔티티만 DB에서 다시 읽어옴
+     */
+    private void refreshManaged(List<Long> ids) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return; // 트랜잭션 밖에서는 유지되는 영속성 컨텍스트가 없음
+        }
+
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+        for (Long id : ids) {
+            EntityKey key = session.generateEntityKey(id, persister);
+            Object managed = session.getPersistenceContextInternal().getEntity(key);
+            if (managed != null) {
+                em.refresh(managed);
+            }
+        }
+    }
+
+    private void sleep(Duration pause) {
+        if (pause.isZero() || pause.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bulk update interrupted", e);
+        }
+    }
+
+}
@@ -1,8 +1,13 @@
 package learn.springdatajpa.repository;
 
+import learn.springdatajpa.dto.MemberDto;
 import learn.springdatajpa.entity.Member;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MemberCustomRepository {
     /*
@@ -17,4 +22,50 @@ public interface MemberCustomRepository {
 
     List<Member> findMemberCustom();
 
+    /**
+     * 파라미터 바인딩 (컬렉션 타입)
+     * 네임드 파라미터로 컬렉션 타입도 넘길 수 있음.
+     * usernames를 IN 절 하나에 모두 넣지 않고, chunkSize 개씩 나눠서 조회한 뒤 합쳐서 반환함. 중복된 이름은 한 번만 조회함
+     * (chunkSize를 생략하면 512)
+     */
+    List<Member> findByUsernames(List<String> usernames);
+
+    List<Member> findByUsernames(List<String> usernames, int chunkSize);
+
+    /**
+     * 대량 insert
+     * hibernate.jdbc.batch_size 단위로 flush, clear 하면서 저장함. 저장한 회원 수를 반환
+     */
+    int bulkInsert(Stream<Member> members);
+
+    int bulkInsert(Stream<Member> members, int batchSize);
+
+    /**
+     * 전체 회원 스트리밍 조회
+     * 결과를 List로 한 번에 올리지 않고 DB 커서로 한 행씩 읽어옴. fetchSize는 JDBC 드라이버가 한 번에 가져올 행의 개수
+     *
+     * 주의: 반드시 트랜잭션 안에서 호출하고 try-with-resources 등으로 스트림을 닫아줘야 함 (커서와 커넥션을 잡고 있기 때문)
+     */
+    Stream<Member> streamAllMembers(int fetchSize);
+
+    Stream<MemberDto> streamMemberDto(int fetchSize);
+
+    /**
+     * 증분 동기화 - 변경분 조회
+     * 수정 시각이 since 이후인 회원을 (수정 시각, id) 순서로 스트리밍 조회함. 수정 시각이 since와 같으면 id가 lastId보다 큰 회원만 포함함.
+     * 마지막으로 처리한 회원으로 MemberChangeCursor를 만들어 두면 다음 번에 그 지점부터 이어서 조회할 수 있음
+     *
+     * 주의: streamAllMembers()와 마찬가지로 트랜잭션 안에서 호출하고 스트림을 닫아줘야 함.
+     * 삭제된 회원은 조회되지 않으므로 삭제는 ChangeFeed로 받아야 함
+     */
+    Stream<Member> streamChangedSince(LocalDateTime since, long lastId);
+
+    Stream<Member> streamChangedSince(LocalDateTime since, long lastId, int fetchSize);
+
+    /**
+     * 페이징 쿼리 - count 쿼리 캐시
+     * findPageByAge()와 같은 결과를 반환하지만 전체 개수는 CountCache에 캐시된 근사값을 사용함
+     */
+    Page<Member> findPageByAgeWithCachedCount(int age, Pageable pageable);
+
 }
@@ -1,15 +1,38 @@
 package learn.springdatajpa.repository;
 
+import learn.springdatajpa.cache.CountCache;
+import learn.springdatajpa.dto.MemberDto;
 import learn.springdatajpa.entity.Member;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.query.Query;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.applySorting;
 
 @RequiredArgsConstructor
 public class MemberCustomRepositoryImpl implements MemberCustomRepository {
 
+    private static final String BATCH_SIZE_PROPERTY = "hibernate.jdbc.batch_size";
+    private static final int DEFAULT_BATCH_SIZE = 50;
+    private static final int DEFAULT_IN_CLAUSE_CHUNK_SIZE = 512;
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+
     private final EntityManager em;
+    private final CountCache countCache;
 
     /**
      * Spring Data JPA와 함께 순수 JPA를 사용하고 싶다고 가정.
@@ -21,4 +44,189 @@ public class MemberCustomRepositoryImpl implements MemberCustomRepository {
                 .getResultList();
     }
 
+    @Override
+    public List<Member> findByUsernames(List<String> usernames) {
+        return findByUsernames(usernames, DEFAULT_IN_CLAUSE_CHUNK_SIZE);
+    }
+
+    /**
+     * IN 절 파라미터 개수는 hibernate.query.in_clause_parameter_padding 설정으로 2의 거듭제곱(1, 2, 4, 8...)으로 맞춰지므로
+     * 목록 크기가 달라도 SQL 종류는 chunkSize까지의 거듭제곱 개수만큼만 생김 (하이버네이트 쿼리 플랜 캐시와 DB statement 캐시를 아낌).
+     * 또한 DB마다 한 SQL에 넣을 수 있는 파라미터 개수에 제한이 있으므로 chunkSize 개씩 나눠서 조회함.
+     * chunkSize를 2의 거듭제곱으로 정하면 마지막 조각을 빼고는 패딩이 붙지 않음
+     *
+     * 조각마다 SQL이 따로 실행되므로 결과는 조각 순서대로 합쳐짐
+     */
+    @Override
+    public List<Member> findByUsernames(List<String> usernames, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(usernames));
+        List<Member> result = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            result.addAll(em.createQuery("select m from Member m where m.username in :usernames", Member.class)
+                    .setParameter("usernames", distinct.subList(from, Math.min(from + chunkSize, distinct.size())))
+                    .getResultList());
+        }
+        return result;
+    }
+
+    /**
+     * 같은 객체 안의 메서드 호출은 스프링 프록시를 거치지 않으므로, 아래 메서드의 @Transactional이 적용되지 않음. 여기에도 따로 붙여줌
+     */
+    @Override
+    @Transactional
+    public int bulkInsert(Stream<Member> members) {
+        return bulkInsert(members, configuredBatchSize());
+    }
+
+    /**
+     * persist()만 반복하면 영속성 컨텍스트에 엔티티와 스냅샷이 계속 쌓여서 메모리가 부족해지고 flush 시 더티 체킹 비용도 커짐.
+     * 따라서 batchSize 만큼 persist 할 때마다 flush()로 모아둔 insert를 JDBC 배치로 보내고, clear()로 영속성 컨텍스트를 비워줌.
+     * batchSize는 hibernate.jdbc.batch_size와 맞추는 것이 좋음
+     *
+     * 주의:
+     * clear()가 호출되므로 같은 트랜잭션에서 이전에 조회한 엔티티도 모두 준영속 상태가 됨.
+     * 또한 Member 생성 시 넘긴 Team의 members 컬렉션에는 저장한 회원이 계속 쌓이므로, 대량 저장 시에는 Team을 공유하는 인스턴스로 넘기지 않는 것이 좋음.
+     */
+    @Override
+    @Transactional
+    public int bulkInsert(Stream<Member> members, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+
+        int count = 0;
+        Iterator<Member> iterator = members.iterator();
+        while (iterator.hasNext()) {
+            em.persist(iterator.next());
+            if (++count % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        return count;
+    }
+
+    /**
+     * Hibernate의 Query#stream()은 내부적으로 ScrollMode.FORWARD_ONLY 커서를 사용함.
+     * 읽기 전용으로 조회해서 더티 체킹용 스냅샷을 만들지 않고, 한 행씩 넘겨줄 때마다 detach 해서 영속성 컨텍스트에 엔티티가 쌓이지 않게 함.
+     * 따라서 테이블 크기와 상관없이 메모리 사용량이 일정하게 유지됨.
+     * (detach 된 회원의 team은 지연 로딩할 수 없으므로, 팀 정보가 필요하면 streamMemberDto()를 사용)
+     */
+    @Override
+    public Stream<Member> streamAllMembers(int fetchSize) {
+        assertSurroundingTransaction();
+
+        @SuppressWarnings("unchecked")
+        Query<Member> query = em.createQuery("select m from Member m", Member.class)
+                .unwrap(Query.class);
+
+        return query
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .stream()
+                .map(member -> {
+                    em.detach(member);
+                    return member;
+                });
+    }
+
+    /**
+     * DTO는 엔티티가 아니므로 영속성 컨텍스트에 올라가지 않음. 별도의 detach 없이 커서로 읽기만 하면 됨
+     */
+    @Override
+    public Stream<MemberDto> streamMemberDto(int fetchSize) {
+        assertSurroundingTransaction();
+
+        @SuppressWarnings("unchecked")
+        Query<MemberDto> query = em.createQuery("select new learn.springdatajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t", MemberDto.class)
+                .unwrap(Query.class);
+
+        return query
+                .setFetchSize(fetchSize)
+                .stream();
+    }
+
+    @Override
+    public Stream<Member> streamChangedSince(LocalDateTime since, long lastId) {
+        return streamChangedSince(since, lastId, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * 정렬이 (last_modified_date, member_id) 인덱스의 순서와 같고, 조건의 앞부분(m.lastModifiedDate >= :since)이 인덱스 첫 컬럼의 범위 조건이므로
+     * DB는 인덱스에서 워터마크 위치를 찾은 뒤 그 뒤의 변경된 행만 순서대로 읽음 (전체 테이블을 스캔하거나 정렬하지 않음).
+     * "a > :since or (a = :since and id > :lastId)"처럼 OR가 바깥에 있으면 DB에 따라 인덱스 범위를 잡지 못하므로, 범위 조건을 AND로 앞에 둠.
+     * 수정 시각이 같은 회원이 여러 명이어도 id로 순서가 정해지므로, 중간에 멈췄다가 이어서 조회해도 빠지거나 중복되는 회원이 없음.
+     *
+     * 주의: 수정 시각은 커밋 시각도, flush 시각도 아닌 트랜잭션에서 처음 auditing이 일어난 시각임 (TransactionScopedDateTimeProvider).
+     * 그래서 트랜잭션이 시작하고 커밋할 때까지 걸린 시간 전체가, 이미 지나간 워터마크 앞쪽에 행이 늦게 나타날 수 있는 구간이 됨.
+     * 이런 경우까지 놓치지 않으려면 워터마크를 가장 긴 쓰기 트랜잭션 시간(시작부터 커밋까지)만큼 앞당겨서 조회하고 중복은 받는 쪽에서 무시해야 함
+     */
+    @Override
+    public Stream<Member> streamChangedSince(LocalDateTime since, long lastId, int fetchSize) {
+        assertSurroundingTransaction();
+
+        @SuppressWarnings("unchecked")
+        Query<Member> query = em.createQuery(
+                        "select m from Member m" +
+                        " where m.lastModifiedDate >= :since and (m.lastModifiedDate > :since or m.id > :lastId)" +
+                        " order by m.lastModifiedDate asc, m.id asc", Member.class)
+                .setParameter("since", since)
+                .setParameter("lastId", lastId)
+                .unwrap(Query.class);
+
+        return query
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .stream()
+                .map(member -> {
+                    em.detach(member);
+                    return member;
+                });
+    }
+
+    /**
+     * PageableExecutionUtils는 Spring Data JPA가 Page 반환 쿼리 메서드에 사용하는 것과 동일한 유틸리티.
+     * 첫 페이지인데 조회 결과가 페이지 크기보다 적거나, 마지막 페이지인 경우에는 content만으로 전체 개수를 알 수 있으므로 count 쿼리를 생략함.
+     * 그 외의 경우에만 CountCache를 거쳐 count 쿼리를 실행함
+     */
+    @Override
+    public Page<Member> findPageByAgeWithCachedCount(int age, Pageable pageable) {
+        TypedQuery<Member> query = em.createQuery(applySorting("select m from Member m where m.age = :age", pageable.getSort(), "m"), Member.class)
+                .setParameter("age", age);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize());
+        }
+
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable,
+                () -> countCache.get("Member.age=" + age, () -> countByAge(age)));
+    }
+
+    private long countByAge(int age) {
+        return em.createQuery("select count(m) from Member m where m.age = :age", Long.class)
+                .setParameter("age", age)
+                .getSingleResult();
+    }
+
+    /**
+     * 트랜잭션이 없으면 메서드가 끝나는 시점에 EntityManager와 커넥션이 닫혀버려서 스트림을 소비할 수 없음
+     * Spring Data JPA가 Stream 반환 쿼리 메서드에 대해 하는 검사와 동일
+     */
+    private void assertSurroundingTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new InvalidDataAccessApiUsageException("Streaming query requires a surrounding transaction");
+        }
+    }
+
+    private int configuredBatchSize() {
+        Object batchSize = em.getEntityManagerFactory().getProperties().get(BATCH_SIZE_PROPERTY);
+        return batchSize == null ? DEFAULT_BATCH_SIZE : Integer.parseInt(batchSize.toString());
+    }
+
 }
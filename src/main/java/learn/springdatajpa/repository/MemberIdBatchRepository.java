@@ -0,0 +1,31 @@
+package learn.springdatajpa.repository;
+
+import learn.springdatajpa.entity.Member;
+
+import java.util.List;
+
+public interface MemberIdBatchRepository {
+    /*
+    식별자 배열로 대량 조회/삭제
+
+    findAllById(Iterable<Long>), deleteAllById(Iterable<Long>)는 식별자를 박싱된 컬렉션으로 받고,
+    deleteAllById()는 엔티티를 하나씩 조회해서 삭제함.
+    여기서는 식별자를 long[]로 받아 정렬/중복 제거한 뒤 chunkSize 개씩 IN 절 쿼리로 나눠서 실행함 (chunkSize를 생략하면 512)
+     */
+
+    /**
+     * 식별자 순서로 정렬해서 반환함. 없는 식별자는 무시함
+     */
+    List<Member> findAllByIds(long[] ids);
+
+    List<Member> findAllByIds(long[] ids, int chunkSize);
+
+    /**
+     * 벌크 delete 쿼리로 삭제하고 삭제한 회원 수를 반환함.
+     * 벌크 쿼리는 @PostRemove가 호출되지 않으므로 삭제한 회원마다 EntityChangeEvent(DELETE)를 직접 발행함
+     */
+    int deleteByIds(long[] ids);
+
+    int deleteByIds(long[] ids, int chunkSize);
+
+}
@@ -0,0 +1,99 @@
+package learn.springdatajpa.repository;
+
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.event.EntityChangeEvent;
+import learn.springdatajpa.event.EntityChangeType;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class MemberIdBatchRepositoryImpl implements MemberIdBatchRepository {
+
+    private static final int DEFAULT_CHUNK_SIZE = 512;
+
+    private final EntityManager em;
+    private final ApplicationEventPublisher publisher;
+
+    @Override
+    public List<Member> findAllByIds(long[] ids) {
+        return findAllByIds(ids, DEFAULT_CHUNK_SIZE);
+    }
+
+    @Override
+    public List<Member> findAllByIds(long[] ids, int chunkSize) {
+        checkChunkSize(chunkSize);
+
+        long[] keys = LongIds.distinctSorted(ids);
+        List<Member> result = new ArrayList<>(keys.length);
+        for (int from = 0; from < keys.length; from += chunkSize) {
+            result.addAll(em.createQuery("select m from Member m where m.id in :ids order by m.id", Member.class)
+                    .setParameter("ids", LongIds.view(keys, from, Math.min(from + chunkSize, keys.length)))
+                    .getResultList());
+        }
+        return result;
+    }
+
+    @Override
+    public int deleteByIds(long[] ids) {
+        return deleteByIds(ids, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * 벌크 쿼리는 영속성 컨텍스트를 거치지 않으므로, 먼저 flush()로 쓰기 지연된 SQL을 보내고
+     * 삭제한 회원 중 영속 상태인 엔티티는 준영속으로 만들어서 이후 flush 때 삭제된 행을 수정하지 않게 함.
+     * 삭제 이벤트는 실제로 삭제된 회원에 대해서만 발행하도록 조각마다 존재하는 식별자를 먼저 조회함
+     */
+    @Override
+    @Transactional
+    public int deleteByIds(long[] ids, int chunkSize) {
+        checkChunkSize(chunkSize);
+        em.flush();
+
+        long[] keys = LongIds.distinctSorted(ids);
+        int deleted = 0;
+        for (int from = 0; from < keys.length; from += chunkSize) {
+            List<Long> existing = em.createQuery("select m.id from Member m where m.id in :ids", Long.class)
+                    .setParameter("ids", LongIds.view(keys, from, Math.min(from + chunkSize, keys.length)))
+                    .getResultList();
+            if (existing.isEmpty()) {
+                continue;
+            }
+
+            detachManaged(existing);
+            deleted += em.createQuery("delete from Member m where m.id in :ids")
+                    .setParameter("ids", existing)
+                    .executeUpdate();
+            for (Long id : existing) {
+                publisher.publishEvent(new EntityChangeEvent(Member.class, id, EntityChangeType.DELETE));
+            }
+        }
+        return deleted;
+    }
+
+    private void detachManaged(List<Long> ids) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+        for (Long id : ids) {
+            EntityKey key = session.generateEntityKey(id, persister);
+            Object managed = session.getPersistenceContextInternal().getEntity(key);
+            if (managed != null) {
+                em.detach(managed);
+            }
+        }
+    }
+
+    private void checkChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+    }
+
+}
@@ -1,5 +1,6 @@
 package learn.springdatajpa.repository;
 
+import learn.springdatajpa.audit.TransactionScopedDateTimeProvider;
 import learn.springdatajpa.entity.Member;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
@@ -16,6 +17,7 @@ import java.util.Optional;
 public class MemberJpaRepository {
 
     private final EntityManager em;
+    private final TransactionScopedDateTimeProvider dateTimeProvider;
 
     public Member save(Member member) {
         em.persist(member);
@@ -55,8 +57,9 @@ public class MemberJpaRepository {
     }
 
     public int bulkAddAge(int age) {
-        return em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
+        return em.createQuery("update versioned Member m set m.age = m.age + 1, m.lastModifiedDate = :now where m.age >= :age")
                 .setParameter("age", age)
+                .setParameter("now", dateTimeProvider.now())
                 .executeUpdate();
     }
 
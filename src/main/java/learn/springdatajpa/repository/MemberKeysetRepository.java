@@ -0,0 +1,22 @@
+package learn.springdatajpa.repository;
+
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.paging.KeysetWindow;
+
+public interface MemberKeysetRepository {
+    /*
+    키셋(seek) 페이징
+
+    OFFSET 페이징은 offset 만큼의 행을 읽고 버린 뒤에 limit 만큼을 반환하기 때문에, 뒤쪽 페이지로 갈수록 느려짐.
+    키셋 페이징은 "마지막으로 본 행의 정렬 키보다 뒤에 있는 행"을 조건으로 조회하므로, 인덱스를 타기만 하면 페이지 깊이와 상관없이 일정한 속도를 유지함.
+    대신 임의의 페이지 번호로 바로 이동하는 기능은 없고, 다음 구간으로만 이동할 수 있음 (무한 스크롤, 더보기 기능에 적합).
+     */
+
+    /**
+     * 나이가 age인 회원을 (username desc, member_id asc) 순으로 size 만큼 조회
+     *
+     * @param continuationToken 이전 구간의 KeysetWindow#getNextToken(). 첫 구간을 조회할 때는 null
+     */
+    KeysetWindow<Member> findWindowByAge(int age, String continuationToken, int size);
+
+}
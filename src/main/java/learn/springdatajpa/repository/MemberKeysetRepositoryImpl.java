@@ -0,0 +1,65 @@
+package learn.springdatajpa.repository;
+
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.paging.KeysetWindow;
+import learn.springdatajpa.paging.MemberKeysetCursor;
+import lombok.RequiredArgsConstructor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class MemberKeysetRepositoryImpl implements MemberKeysetRepository {
+
+    private final EntityManager em;
+
+    /**
+     * 정렬 키와 순서/방향이 같은 (age, username desc, member_id) 인덱스를 사용하므로 DB는 커서 위치로 바로 찾아가서 size + 1 개만 읽음.
+     * 1개를 더 조회하는 이유는 Slice와 마찬가지로 다음 구간의 존재 여부를 count 쿼리 없이 알기 위함.
+     *
+     * 커서 조건의 최상위에 OR가 있으면 인덱스 범위가 age로만 좁혀져서, 매번 age 구간의 처음부터 읽고 앞쪽 행을 버리게 됨.
+     * 그래서 "username <= :username"을 AND로 따로 두어 인덱스 탐색의 시작점이 커서 위치가 되게 하고, 같은 username 안에서의 id 비교는 걸러내기만 함.
+     *
+     * username이 null인 회원은 정렬 키를 비교할 수 없으므로 조회 대상에서 제외함.
+     */
+    @Override
+    public KeysetWindow<Member> findWindowByAge(int age, String continuationToken, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Window size must be positive: " + size);
+        }
+
+        TypedQuery<Member> query;
+        if (continuationToken == null) {
+            query = em.createQuery(
+                    "select m from Member m" +
+                    " where m.age = :age and m.username is not null" +
+                    " order by m.username desc, m.id asc", Member.class);
+        } else {
+            MemberKeysetCursor cursor = MemberKeysetCursor.decode(continuationToken);
+            if (cursor.getAge() != age) {
+                throw new IllegalArgumentException("Keyset token was issued for age " + cursor.getAge() + ", not " + age);
+            }
+            query = em.createQuery(
+                    "select m from Member m" +
+                    " where m.age = :age and m.username is not null" +
+                    " and m.username <= :username and (m.username < :username or m.id > :id)" +
+                    " order by m.username desc, m.id asc", Member.class)
+                    .setParameter("username", cursor.getUsername())
+                    .setParameter("id", cursor.getId());
+        }
+
+        List<Member> result = query
+                .setParameter("age", age)
+                .setMaxResults(size + 1)
+                .getResultList();
+
+        if (result.size() <= size) {
+            return new KeysetWindow<>(result, null);
+        }
+
+        List<Member> content = result.subList(0, size);
+        return new KeysetWindow<>(content, MemberKeysetCursor.of(age, content.get(size - 1)).encode());
+    }
+
+}
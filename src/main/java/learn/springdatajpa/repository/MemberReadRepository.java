@@ -0,0 +1,23 @@
+package learn.springdatajpa.repository;
+
+import learn.springdatajpa.dto.MemberDto;
+import learn.springdatajpa.projection.MemberProjection;
+
+import java.util.List;
+
+public interface MemberReadRepository {
+    /*
+    읽기 전용 조회 - JDBC 직접 사용
+
+    readOnly 힌트를 줘도 엔티티 조회는 영속성 컨텍스트에 엔티티, 프록시, 관리용 엔트리(EntityEntry)를 만들고,
+    DTO/Projection 조회도 JPQL 파싱과 하이버네이트의 결과 변환 과정을 거침.
+    화면에 보여주기만 하는 조회라면 JdbcTemplate으로 SQL을 실행하고 ResultSet을 바로 DTO로 옮기는 것이 가장 가벼움.
+
+    주의: 영속성 컨텍스트를 거치지 않으므로 아직 flush 되지 않은 변경 내용은 조회되지 않음
+     */
+
+    List<MemberDto> findMemberDtoByJdbc();
+
+    List<MemberProjection> findMemberProjectionByJdbc(String username);
+
+}
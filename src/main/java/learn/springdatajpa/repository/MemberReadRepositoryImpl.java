@@ -0,0 +1,45 @@
+package learn.springdatajpa.repository;
+
+import learn.springdatajpa.dto.MemberDto;
+import learn.springdatajpa.projection.MemberProjection;
+import learn.springdatajpa.projection.MemberProjectionRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class MemberReadRepositoryImpl implements MemberReadRepository {
+
+    /*
+    RowMapper는 한 번만 만들어서 재사용함.
+    BeanPropertyRowMapper처럼 컬럼 이름으로 필드를 찾는 리플렉션 없이, SELECT 절의 순서대로 컬럼 인덱스로 값을 꺼냄
+     */
+    private static final RowMapper<MemberDto> MEMBER_DTO_MAPPER = (rs, rowNum) ->
+            new MemberDto(rs.getLong(1), rs.getString(2), rs.getString(3));
+
+    private static final RowMapper<MemberProjection> MEMBER_PROJECTION_MAPPER = (rs, rowNum) ->
+            new MemberProjectionRow(rs.getLong(1), rs.getString(2), rs.getString(3));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * findMemberDto()와 같은 결과 (팀이 있는 회원만 조회)
+     */
+    @Override
+    public List<MemberDto> findMemberDtoByJdbc() {
+        return jdbcTemplate.query(
+                "select m.member_id, m.username, t.name from member m join team t on m.team_id = t.team_id",
+                MEMBER_DTO_MAPPER);
+    }
+
+    @Override
+    public List<MemberProjection> findMemberProjectionByJdbc(String username) {
+        return jdbcTemplate.query(
+                "select m.member_id, m.username, t.name from member m left join team t on m.team_id = t.team_id where m.username = ?",
+                MEMBER_PROJECTION_MAPPER,
+                username);
+    }
+
+}
@@ -1,5 +1,6 @@
 package learn.springdatajpa.repository;
 
+import learn.springdatajpa.config.AsyncConfig;
 import learn.springdatajpa.dto.MemberDto;
 import learn.springdatajpa.entity.Member;
 import learn.springdatajpa.projection.MemberProjection;
@@ -8,12 +9,16 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.scheduling.annotation.Async;
 
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
-public interface MemberRepository extends JpaRepository<Member, Long>, MemberCustomRepository {
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberCustomRepository, MemberKeysetRepository, MemberReadRepository,
+        MemberIdBatchRepository {
 
     /**
      * 쿼리 메서드 기능:
@@ -59,6 +64,16 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberCus
     @Query("select m.username from Member m")
     List<String> findUsernameList();
 
+    /**
+     * 값 조회 - 스트리밍:
+     * 반환 타입을 Stream으로 하면 결과를 List로 한 번에 올리지 않고 DB 커서로 한 행씩 읽어옴.
+     * org.hibernate.fetchSize 힌트로 JDBC 드라이버가 한 번에 가져올 행의 개수를 정할 수 있음.
+     * 반드시 트랜잭션 안에서 호출하고, 사용 후에는 스트림을 닫아줘야 함
+     */
+    @QueryHints(value = {@QueryHint(name = "org.hibernate.fetchSize", value = "1000")})
+    @Query("select m.username from Member m")
+    Stream<String> streamUsernameList();
+
     /**
      * Dto로 조회:
      * JPQL에서 DTO 타입을 사용 시, 패키지 경로를 포함한 풀네임 사용
@@ -66,13 +81,6 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberCus
     @Query("select new learn.springdatajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
-    /**
-     * 파라미터 바인딩 (컬렉션 타입):
-     * 네임드 파라미터로 컬렉션 타입도 넘길 수 있음
-     */
-    @Query("select m from Member m where m.username in :usernames")
-    List<Member> findByUsernames(@Param("usernames") List<String> usernames);
-
     /**
      * 페이징 쿼리
      *
@@ -105,9 +113,12 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberCus
      * 그래서 벌크 연산 호출 이후에는 반드시 영속성 컨텍스트를 깨끗이 비워줘야함
      * (한 트랜잭션 내에서 벌크 연산 이후 조회하는 케이스에 해당되고, 트랜잭션 내에서 벌크연산만 단독 수행이면 상관 없음)
      * 수동으로 clear()를 호출하는 대신, @Modifying에 clearAutomatically = true 옵션을 넣으면 자동으로 벌크 연산 이후 clear 해줌
+     * 또한 엔티티 리스너(auditing)도 호출되지 않으므로 수정 시각은 직접 바꿔줘야 증분 동기화(streamChangedSince)에 잡힘
+     * (auditing과 같은 시각을 쓰도록 auditingDateTimeProvider 빈에서 가져옴)
+     * @Version도 증가하지 않으므로 versioned(하이버네이트 HQL 문법)로 함께 올려줘야, 수정 전 version을 들고 있던 다른 트랜잭션이 벌크 수정을 덮어쓰지 않고 낙관적 락 충돌을 만남
      */
     @Modifying(clearAutomatically = true)
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
+    @Query("update versioned Member m set m.age = m.age + 1, m.lastModifiedDate = :#{@auditingDateTimeProvider.now()} where m.age >= :age")
     int bulkAddAge(@Param("age") int age);
 
     /**
@@ -138,6 +149,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberCus
      * 예시에서는 힌트 옵션 중에서 readOnly를 true로 설정함.
      * 이렇게 하면 이 메서드로 조회한 데이터에 대해서는 조회 이외의 변경 작업이 불가능함
      * 즉, 읽기 전용으로 미리 설정했기 때문에 영속성 컨텍스트는 더티 체킹을 위한 스냅샷도 만들지 않고, 변경에 대한 가능성을 아예 닫아놓음.
+     * (쿼리 메서드는 SimpleJpaRepository의 @Transactional(readOnly = true)를 물려받으므로, 읽기/쓰기 분리 데이터소스를 사용하면 replica에서 조회됨)
      */
     @QueryHints(value = {@QueryHint(name = "org.hibernate.readOnly", value = "true")})
     Member findReadOnlyByUsername(String username);
@@ -148,6 +160,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberCus
      * 낙관적 락, 비관적 락 등 락 모드를 설정할 수 있는 어노테이션
      * JPA에게 락 모드를 명시해서 실제 쿼리에 반영함
      * 아래처럼 설정한 경우 "select ... for update"와 같이 비관적 락을 사용하는 SQL이 나감 (DB 방언 따라 다름)
+     * 비관적 락은 경합하는 트랜잭션을 모두 줄 세우므로, 같은 회원을 자주 수정하는 경우에는 낙관적 락(BaseEntity의 @Version) + 재시도(@OptimisticRetry)를 고려
      */
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     List<Member> findLockByUsername(String username);
@@ -175,4 +188,20 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberCus
         nativeQuery = true
     )
     Page<MemberProjection> findNativeQueryProjection(Pageable pageable);
+
+    /**
+     * 비동기 쿼리
+     * @Async를 붙이고 반환 타입을 CompletableFuture로 감싸면 호출 즉시 반환되고, 쿼리는 repositoryExecutor 스레드에서 실행됨.
+     * 서로 관계 없는 쿼리 여러 개를 동시에 실행하고 모아서 사용하면, 전체 응답 시간이 쿼리 시간의 합이 아닌 가장 느린 쿼리의 시간이 됨.
+     *
+     * 다른 스레드에서 실행되므로 호출한 쪽의 트랜잭션과 영속성 컨텍스트를 공유하지 않고, 메서드마다 별도의 읽기 전용 트랜잭션에서 실행됨.
+     * (따라서 호출한 트랜잭션에서 아직 커밋하지 않은 데이터는 보이지 않고, 반환된 엔티티는 준영속 상태)
+     */
+    @Async(AsyncConfig.REPOSITORY_EXECUTOR)
+    @Query(value = "select m from Member m where m.age = :age", countQuery = "select count(m) from Member m where m.age = :age")
+    CompletableFuture<Page<Member>> findAsyncPageByAge(@Param("age") int age, Pageable pageable);
+
+    @Async(AsyncConfig.REPOSITORY_EXECUTOR)
+    @Query("select new learn.springdatajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
+    CompletableFuture<List<MemberDto>> findAsyncMemberDto();
 }
@@ -1,7 +1,20 @@
 package learn.springdatajpa.repository;
 
+import learn.springdatajpa.config.AsyncConfig;
 import learn.springdatajpa.entity.Team;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.scheduling.annotation.Async;
+
+import java.util.concurrent.CompletableFuture;
 
 public interface TeamRepository extends JpaRepository<Team, Long> {
+
+    /**
+     * count()의 비동기 버전 (MemberRepository의 비동기 쿼리 참고)
+     */
+    @Async(AsyncConfig.REPOSITORY_EXECUTOR)
+    @Query("select count(t) from Team t")
+    CompletableFuture<Long> countAsync();
+
 }
@@ -0,0 +1,32 @@
+package learn.springdatajpa.retry;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 낙관적 락 충돌(OptimisticLockException) 시 메서드를 다시 실행함
+ *
+ * 재시도는 트랜잭션 단위로 이루어져야 하므로 @Transactional 메서드나 그 바깥에 붙여야 함.
+ * 이미 진행 중인 트랜잭션 안에서 호출되면 그 트랜잭션은 이미 롤백 대상이 되었으므로 재시도하지 않음
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface OptimisticRetry {
+
+    /**
+     * 최초 실행을 포함한 최대 실행 횟수
+     */
+    int maxAttempts() default 3;
+
+    /**
+     * 첫 재시도 전 대기 시간(ms). 재시도할 때마다 두 배씩 늘어남
+     */
+    long backoffMillis() default 20;
+
+    long maxBackoffMillis() default 1000;
+
+}
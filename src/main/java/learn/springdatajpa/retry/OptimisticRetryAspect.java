@@ -0,0 +1,63 @@
+package learn.springdatajpa.retry;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @OptimisticRetry 처리
+ *
+ * 트랜잭션 AOP보다 먼저(바깥에서) 실행되어야 재시도마다 새 트랜잭션이 시작되므로 가장 높은 우선순위를 줌.
+ * 여러 인스턴스가 동시에 충돌했을 때 같은 시각에 다시 부딪히지 않도록, 대기 시간의 절반은 무작위(jitter)로 정함
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class OptimisticRetryAspect {
+
+    private final OptimisticRetryMetrics metrics;
+
+    @Around("@annotation(retry)")
+    public Object retry(ProceedingJoinPoint joinPoint, OptimisticRetry retry) throws Throwable {
+        String method = joinPoint.getSignature().toShortString();
+        metrics.invocation(method);
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed(); // 바깥 트랜잭션이 롤백되므로 여기서 재시도해도 소용 없음
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                metrics.conflict(method);
+                if (attempt >= retry.maxAttempts()) {
+                    metrics.exhausted(method);
+                    throw e;
+                }
+                long backoff = backoff(retry, attempt);
+                log.debug("Optimistic lock conflict on {} (attempt {}), retrying in {}ms", method, attempt, backoff);
+                Thread.sleep(backoff);
+            }
+        }
+    }
+
+    private long backoff(OptimisticRetry retry, int attempt) {
+        long exponential = Math.min(retry.maxBackoffMillis(), retry.backoffMillis() << Math.min(attempt - 1, 30));
+        long half = exponential / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+}
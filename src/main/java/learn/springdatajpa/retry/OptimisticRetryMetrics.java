@@ -0,0 +1,77 @@
+package learn.springdatajpa.retry;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @OptimisticRetry 메서드별 호출/충돌/재시도 실패 횟수
+ * 충돌률(conflicts / invocations)이 높으면 낙관적 락보다 비관적 락이나 작업 분리가 나을 수 있음
+ */
+@Component
+public class OptimisticRetryMetrics {
+
+    private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+    void invocation(String method) {
+        counters(method).invocations.increment();
+    }
+
+    void conflict(String method) {
+        counters(method).conflicts.increment();
+    }
+
+    void exhausted(String method) {
+        counters(method).exhausted.increment();
+    }
+
+    public Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> snapshot = new TreeMap<>();
+        counters.forEach((method, c) -> snapshot.put(method,
+                new Snapshot(c.invocations.sum(), c.conflicts.sum(), c.exhausted.sum())));
+        return snapshot;
+    }
+
+    public Snapshot snapshot(String method) {
+        Counters c = counters(method);
+        return new Snapshot(c.invocations.sum(), c.conflicts.sum(), c.exhausted.sum());
+    }
+
+    private Counters counters(String method) {
+        return counters.computeIfAbsent(method, key -> new Counters());
+    }
+
+    private static final class Counters {
+
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+
+        private final long invocations;
+
+        private final long conflicts;
+
+        /**
+         * maxAttempts 만큼 재시도하고도 실패한 횟수
+         */
+        private final long exhausted;
+
+        public double getConflictRate() {
+            return invocations == 0 ? 0 : (double) conflicts / invocations;
+        }
+
+    }
+
+}
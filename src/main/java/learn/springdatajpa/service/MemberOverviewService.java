@@ -0,0 +1,35 @@
+package learn.springdatajpa.service;
+
+import learn.springdatajpa.dto.MemberDto;
+import learn.springdatajpa.dto.MemberOverview;
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.repository.MemberRepository;
+import learn.springdatajpa.repository.TeamRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 서로 관계 없는 조회 세 개를 동시에 실행하고 결과를 모음
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberOverviewService {
+
+    private final MemberRepository memberRepository;
+    private final TeamRepository teamRepository;
+
+    public MemberOverview overview(int age, Pageable pageable) {
+        CompletableFuture<Page<Member>> members = memberRepository.findAsyncPageByAge(age, pageable);
+        CompletableFuture<List<MemberDto>> memberDtos = memberRepository.findAsyncMemberDto();
+        CompletableFuture<Long> teamCount = teamRepository.countAsync();
+
+        CompletableFuture.allOf(members, memberDtos, teamCount).join();
+        return new MemberOverview(members.join(), memberDtos.join(), teamCount.join());
+    }
+
+}
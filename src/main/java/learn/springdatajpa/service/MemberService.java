@@ -0,0 +1,30 @@
+package learn.springdatajpa.service;
+
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.repository.MemberRepository;
+import learn.springdatajpa.retry.OptimisticRetry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityNotFoundException;
+
+@Service
+@RequiredArgsConstructor
+public class MemberService {
+
+    private final MemberRepository memberRepository;
+
+    /**
+     * 낙관적 락으로 수정
+     * 다른 트랜잭션과 충돌하면 @OptimisticRetry가 회원을 다시 조회하는 것부터(새 트랜잭션으로) 재시도함
+     */
+    @OptimisticRetry
+    @Transactional
+    public void changeUsername(Long memberId, String newUsername) {
+        Member member = memberRepository.findById(memberId)
+                .orElseThrow(() -> new EntityNotFoundException("Member not found: " + memberId));
+        member.changeUsername(newUsername);
+    }
+
+}
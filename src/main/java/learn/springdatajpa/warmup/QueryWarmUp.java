@@ -0,0 +1,195 @@
+package learn.springdatajpa.warmup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
+
+/**
+ * 애플리케이션이 요청을 받기 전에 리포지토리 쿼리 메서드를 한 번씩 실행해서 쿼리를 미리 컴파일해 둠
+ *
+ * 메서드 이름으로 만드는 쿼리와 @EntityGraph가 붙은 쿼리는 처음 호출될 때 Criteria -> JPQL -> SQL 변환이 일어나고,
+ * 페이징 메서드의 count 쿼리도 처음 호출될 때 만들어짐. 이 비용이 첫 요청의 응답 시간에 더해지지 않도록
+ * 시작 시점에 병렬로 한 번씩 실행함. 실행되는 SQL은 WarmUpStatementInspector가 결과 0건으로 바꾸므로 DB 부하는 거의 없음.
+ *
+ * ApplicationRunner는 ApplicationReadyEvent 이전에 실행되므로, 워밍업이 끝나야 readiness 상태가 ACCEPTING_TRAFFIC이 됨.
+ * 수정 쿼리(@Modifying), 락 쿼리(@Lock), 비동기 메서드는 실행하지 않음
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "springdatajpa.query-warmup", name = "enabled", havingValue = "true")
+public class QueryWarmUp implements ApplicationRunner {
+
+    private final ListableBeanFactory beanFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final WarmUpStatementInspector inspector;
+    private final int parallelism;
+
+    public QueryWarmUp(ListableBeanFactory beanFactory, PlatformTransactionManager transactionManager, WarmUpStatementInspector inspector,
+                       @Value("${springdatajpa.query-warmup.parallelism:4}") int parallelism) {
+        this.beanFactory = beanFactory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.inspector = inspector;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        Map<String, Long> elapsedMillis = warmUp();
+        elapsedMillis.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> log.info("Warmed up {} in {}ms", entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * @return 쿼리 메서드별 첫 실행에 걸린 시간(ms). 실패한 메서드는 포함되지 않음
+     */
+    public Map<String, Long> warmUp() throws InterruptedException {
+        Repositories repositories = new Repositories(beanFactory);
+        List<Runnable> tasks = new ArrayList<>();
+        Map<String, Long> elapsedMillis = new ConcurrentHashMap<>();
+
+        for (Class<?> domainType : repositories) {
+            Object repository = repositories.getRepositoryFor(domainType).orElseThrow();
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            for (Method method : warmUpTargets(information)) {
+                String name = information.getRepositoryInterface().getSimpleName() + "." + method.getName();
+                tasks.add(() -> {
+                    long start = System.nanoTime();
+                    if (invoke(repository, method, name)) {
+                        elapsedMillis.put(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    }
+                });
+            }
+        }
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, tasks.size())));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            tasks.forEach(task -> futures.add(executor.submit(task)));
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    log.warn("Query warm-up task failed", e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Query warm-up finished: {}/{} queries in {}ms",
+                elapsedMillis.size(), tasks.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return elapsedMillis;
+    }
+
+    private Set<Method> warmUpTargets(RepositoryInformation information) {
+        Set<Method> targets = new LinkedHashSet<>();
+        for (Method method : information.getQueryMethods()) {
+            if (method.isAnnotationPresent(Modifying.class)
+                    || method.isAnnotationPresent(Lock.class)
+                    || Future.class.isAssignableFrom(method.getReturnType())) {
+                continue;
+            }
+            targets.add(method);
+        }
+        return targets;
+    }
+
+    private boolean invoke(Object repository, Method method, String name) {
+        inspector.begin();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try {
+                    Object result = method.invoke(repository, arguments(method));
+                    if (result instanceof BaseStream) {
+                        ((BaseStream<?, ?>) result).close();
+                    }
+                } catch (IllegalAccessException | InvocationTargetException e) {
+                    throw new IllegalStateException(e.getCause() != null ? e.getCause() : e);
+                } finally {
+                    status.setRollbackOnly();
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Failed to warm up {}: {}", name, e.getMessage());
+            return false;
+        } finally {
+            inspector.end();
+        }
+    }
+
+    /**
+     * 파라미터 타입별 기본값. 결과는 어차피 0건이므로 값 자체는 의미가 없고, SQL이 만들어질 수 있는 값이면 됨
+     */
+    private Object[] arguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            if (Pageable.class.isAssignableFrom(types[i])) {
+                // 두 번째 페이지를 요청해야 내용이 비어 있어도 count 쿼리가 실행됨
+                args[i] = PageRequest.of(1, 1);
+            } else if (Collection.class.isAssignableFrom(types[i])) {
+                Class<?> elementType = ResolvableType.forMethodParameter(method, i).asCollection().resolveGeneric(0);
+                args[i] = Collections.singletonList(defaultValue(elementType));
+            } else {
+                args[i] = defaultValue(types[i]);
+            }
+        }
+        return args;
+    }
+
+    private Object defaultValue(Class<?> type) {
+        if (type == null) {
+            return null;
+        }
+        if (type == String.class) {
+            return "";
+        }
+        if (type == Sort.class) {
+            return Sort.unsorted();
+        }
+        if (type == int.class || type == Integer.class) {
+            return 0;
+        }
+        if (type == long.class || type == Long.class) {
+            return 0L;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return false;
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,40 @@
+package learn.springdatajpa.warmup;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * 워밍업 중인 스레드에서 실행되는 SQL을 결과가 0건이 되도록 감쌈.
+ *
+ * 하이버네이트가 JPQL/Criteria를 SQL로 바꾸고 파라미터를 바인딩하는 과정은 그대로 거치지만,
+ * DB에서는 where 1 = 0 때문에 테이블을 읽지 않음. 조회가 아닌 SQL은 실행되지 않도록 예외를 던짐
+ */
+@Component
+@ConditionalOnProperty(prefix = "springdatajpa.query-warmup", name = "enabled", havingValue = "true")
+public class WarmUpStatementInspector implements StatementInspector {
+
+    private final ThreadLocal<Boolean> warmingUp = ThreadLocal.withInitial(() -> false);
+
+    void begin() {
+        warmingUp.set(true);
+    }
+
+    void end() {
+        warmingUp.remove();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (!warmingUp.get()) {
+            return sql;
+        }
+        if (!sql.trim().toLowerCase(Locale.ROOT).startsWith("select")) {
+            throw new IllegalStateException("Only select statements can run during query warm-up: " + sql);
+        }
+        return "select * from (" + sql + ") warmup where 1 = 0";
+    }
+
+}
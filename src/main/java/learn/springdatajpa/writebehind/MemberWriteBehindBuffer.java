@@ -0,0 +1,319 @@
+package learn.springdatajpa.writebehind;
+
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.repository.MemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 회원 수정을 메모리에 모아뒀다가 배치로 DB에 쓰는 write-behind 버퍼
+ *
+ * 같은 회원을 여러 번 수정하면 마지막 값만 남기므로(coalescing), 수정 횟수와 상관없이 flush 한 번에 회원 한 명당 update 한 번만 실행됨.
+ * flush는 batchSize 명씩 트랜잭션 하나로 묶고, 회원을 IN 절로 한 번에 조회한 뒤 더티 체킹으로 수정하므로
+ * update는 JDBC 배치로 나가고 @Version 확인과 엔티티 이벤트(EntityChangeListener)도 그대로 동작함.
+ *
+ * 주의:
+ * 버퍼에 있는 수정은 flush 전까지 조회 결과에 보이지 않음.
+ * 특정 회원 때문에 배치가 실패하면(낙관적 락 충돌, 제약 조건 위반) 배치를 반으로 나눠 다시 쓰므로, 실패 원인인 회원의 수정만 버퍼로 되돌아가 다음 flush에서 다시 시도됨.
+ * 그 외의 실패(커넥션을 얻지 못하는 등 DB 장애)는 회원과 상관없으므로 배치를 나누지 않고 실패 횟수도 올리지 않은 채 되돌린 뒤 이번 flush를 멈춤.
+ * 장애가 길어져도 maxRetries 때문에 수정이 버려지지 않고, 장애 중에 flush 한 번이 배치 수만큼의 트랜잭션을 만들지도 않음.
+ * 되돌아가는 사이에 들어온 더 최근 수정이 있으면 그 값이 우선함.
+ * capacity는 새 회원을 넣을 때만 확인함. 실패해서 되돌아가는 수정은 이미 버퍼에 있던 것이므로 capacity를 잠시 넘을 수 있음
+ * stop() 이후의 수정은 쓸 기회가 없으므로 받지 않고 IllegalStateException을 던짐
+ */
+@Slf4j
+public class MemberWriteBehindBuffer implements SmartLifecycle {
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate writeTransaction;
+    private final WriteBehindProperties properties;
+
+    private final Map<Long, PendingMemberUpdate> pending = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    /**
+     * lock을 잡은 상태에서만 바꿈. submit과 같은 락을 쓰므로 stop() 이후에 들어온 수정이 버퍼에 남지 않음
+     */
+    private boolean stopped;
+
+    public MemberWriteBehindBuffer(MemberRepository memberRepository, PlatformTransactionManager transactionManager, WriteBehindProperties properties) {
+        if (properties.getBatchSize() < 1 || properties.getCapacity() < properties.getBatchSize()) {
+            throw new IllegalArgumentException("Write-behind batch size must be positive and not larger than capacity");
+        }
+        this.memberRepository = memberRepository;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    public void changeUsername(Long memberId, String newUsername) {
+        submit(memberId, PendingMemberUpdate.username(newUsername));
+    }
+
+    public void changeAge(Long memberId, int newAge) {
+        submit(memberId, PendingMemberUpdate.age(newAge));
+    }
+
+    /**
+     * 크기 확인과 추가를 같은 락 안에서 해야 여러 스레드가 동시에 넣어도 capacity를 넘지 않음
+     */
+    private void submit(Long memberId, PendingMemberUpdate update) {
+        int size;
+        lock.lock();
+        try {
+            awaitNotFull(memberId);
+            if (stopped) {
+                throw new IllegalStateException("Write-behind buffer is stopped");
+            }
+            pending.merge(memberId, update, PendingMemberUpdate::then);
+            size = pending.size();
+        } finally {
+            lock.unlock();
+        }
+        submitted.increment();
+        if (size >= properties.getBatchSize()) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * lock을 잡은 상태에서 호출
+     */
+    private void awaitNotFull(Long memberId) {
+        long nanos = properties.getOfferTimeout().toNanos();
+        try {
+            while (!stopped && !pending.containsKey(memberId) && pending.size() >= properties.getCapacity()) {
+                if (nanos <= 0) {
+                    throw new WriteBehindFullException("Write-behind buffer is full: " + pending.size() + " pending members");
+                }
+                requestFlush();
+                nanos = notFull.awaitNanos(nanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteBehindFullException("Interrupted while waiting for the write-behind buffer");
+        }
+    }
+
+    private void requestFlush() {
+        if (running && flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    private void flushQuietly() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Write-behind flush failed", e);
+        }
+    }
+
+    /**
+     * 지금까지 버퍼에 쌓인 수정을 DB에 씀. 한 번에 하나의 스레드만 실행함
+     *
+     * @return DB에 쓴 회원 수
+     */
+    public synchronized int flush() {
+        long before = written.sum();
+        List<Long> ids = new ArrayList<>(pending.keySet());
+        for (int from = 0; from < ids.size(); from += properties.getBatchSize()) {
+            Map<Long, PendingMemberUpdate> batch = new LinkedHashMap<>();
+            for (Long id : ids.subList(from, Math.min(from + properties.getBatchSize(), ids.size()))) {
+                PendingMemberUpdate update = pending.remove(id);
+                if (update != null) {
+                    batch.put(id, update);
+                }
+            }
+            signalNotFull();
+
+            try {
+                writeOrSplit(batch);
+            } catch (SystemicFailure e) {
+                // 나머지 회원은 아직 버퍼에 있으므로 다음 flush에서 시도
+                log.warn("Write-behind flush deferred, {} members pending: {}", pending.size(), e.getCause().getMessage());
+                break;
+            }
+        }
+        return (int) (written.sum() - before);
+    }
+
+    /**
+     * 특정 회원 때문에 배치가 실패하면 반으로 나눠서 다시 씀. 한 명짜리 배치까지 실패한 회원만 버퍼로 되돌리고 실패 횟수를 올림
+     *
+     * @throws SystemicFailure 회원과 상관없는 실패. 배치(와 아직 쓰지 않은 나머지 절반)는 실패 횟수를 올리지 않고 버퍼로 되돌린 뒤 던짐
+     */
+    private void writeOrSplit(Map<Long, PendingMemberUpdate> batch) {
+        try {
+            written.add(writeTransaction.execute(status -> write(batch)));
+            return;
+        } catch (RuntimeException e) {
+            if (!isCausedByMember(e)) {
+                requeue(batch, false);
+                throw new SystemicFailure(e);
+            }
+            if (batch.size() == 1) {
+                Long id = batch.keySet().iterator().next();
+                log.warn("Write-behind update of member {} failed, will retry: {}", id, e.getMessage());
+                requeue(batch, true);
+                return;
+            }
+        }
+
+        Map<Long, PendingMemberUpdate> first = new LinkedHashMap<>();
+        Map<Long, PendingMemberUpdate> second = new LinkedHashMap<>();
+        batch.forEach((id, update) -> (first.size() < batch.size() / 2 ? first : second).put(id, update));
+        try {
+            writeOrSplit(first);
+        } catch (SystemicFailure e) {
+            requeue(second, false);
+            throw e;
+        }
+        writeOrSplit(second);
+    }
+
+    /**
+     * 배치 안의 특정 회원 때문에 실패했는지. 나눠서 다시 쓰면 나머지 회원은 성공할 수 있는 실패만 해당함
+     */
+    private static boolean isCausedByMember(RuntimeException e) {
+        return e instanceof OptimisticLockingFailureException || e instanceof DataIntegrityViolationException;
+    }
+
+    private int write(Map<Long, PendingMemberUpdate> batch) {
+        List<Member> members = memberRepository.findAllById(batch.keySet());
+        for (Member member : members) {
+            batch.get(member.getId()).applyTo(member);
+        }
+        if (members.size() < batch.size()) {
+            // 그 사이에 삭제된 회원
+            dropped.add(batch.size() - members.size());
+        }
+        return members.size();
+    }
+
+    private void requeue(Map<Long, PendingMemberUpdate> batch, boolean countFailure) {
+        batch.forEach((id, update) -> {
+            PendingMemberUpdate failed = countFailure ? update.failed() : update;
+            if (failed.getFailures() > properties.getMaxRetries()) {
+                log.error("Dropping write-behind update for member {} after {} failures", id, failed.getFailures());
+                dropped.increment();
+                return;
+            }
+            pending.merge(id, failed, (newer, older) -> older.then(newer));
+        });
+    }
+
+    private void signalNotFull() {
+        lock.lock();
+        try {
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 버퍼에 들어온 수정 횟수. getWrittenCount()와의 차이가 합쳐진(coalesced) 수정 횟수
+     */
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void start() {
+        lock.lock();
+        try {
+            stopped = false;
+        } finally {
+            lock.unlock();
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "member-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    /**
+     * EntityManagerFactory가 닫히기 전에 호출되므로 남은 수정을 여기서 씀
+     */
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            stopped = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        running = false;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(properties.getFlushInterval().toMillis() * 2 + 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (properties.isFlushOnShutdown()) {
+            flush();
+        }
+        if (!pending.isEmpty()) {
+            log.warn("Write-behind buffer stopped with {} members not written", pending.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static class SystemicFailure extends RuntimeException {
+
+        SystemicFailure(RuntimeException cause) {
+            super(cause);
+        }
+
+    }
+
+}
@@ -0,0 +1,60 @@
+package learn.springdatajpa.writebehind;
+
+import learn.springdatajpa.entity.Member;
+
+/**
+ * 아직 DB에 쓰지 않은 회원 한 명의 수정 내용. 같은 회원에 대한 수정은 필드별로 마지막 값만 남김
+ */
+class PendingMemberUpdate {
+
+    private final String username;
+
+    private final Integer age;
+
+    /**
+     * 이 수정이 포함된 배치가 실패한 횟수
+     */
+    private final int failures;
+
+    private PendingMemberUpdate(String username, Integer age, int failures) {
+        this.username = username;
+        this.age = age;
+        this.failures = failures;
+    }
+
+    static PendingMemberUpdate username(String username) {
+        return new PendingMemberUpdate(username, null, 0);
+    }
+
+    static PendingMemberUpdate age(int age) {
+        return new PendingMemberUpdate(null, age, 0);
+    }
+
+    /**
+     * 이 수정 다음에 newer 수정이 일어난 것으로 합침
+     */
+    PendingMemberUpdate then(PendingMemberUpdate newer) {
+        return new PendingMemberUpdate(
+                newer.username != null ? newer.username : username,
+                newer.age != null ? newer.age : age,
+                Math.max(failures, newer.failures));
+    }
+
+    PendingMemberUpdate failed() {
+        return new PendingMemberUpdate(username, age, failures + 1);
+    }
+
+    int getFailures() {
+        return failures;
+    }
+
+    void applyTo(Member member) {
+        if (username != null) {
+            member.changeUsername(username);
+        }
+        if (age != null) {
+            member.changeAge(age);
+        }
+    }
+
+}
@@ -0,0 +1,24 @@
+package learn.springdatajpa.writebehind;
+
+import learn.springdatajpa.repository.MemberRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * springdatajpa.write-behind.enabled=true 일 때만 MemberWriteBehindBuffer를 등록함
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "springdatajpa.write-behind", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(WriteBehindProperties.class)
+public class WriteBehindConfig {
+
+    @Bean
+    public MemberWriteBehindBuffer memberWriteBehindBuffer(MemberRepository memberRepository, PlatformTransactionManager transactionManager,
+                                                           WriteBehindProperties properties) {
+        return new MemberWriteBehindBuffer(memberRepository, transactionManager, properties);
+    }
+
+}
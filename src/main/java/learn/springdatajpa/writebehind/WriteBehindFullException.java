@@ -0,0 +1,9 @@
+package learn.springdatajpa.writebehind;
+
+public class WriteBehindFullException extends RuntimeException {
+
+    public WriteBehindFullException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,49 @@
+package learn.springdatajpa.writebehind;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 회원 수정 write-behind 버퍼 설정
+ *
+ * 버퍼에만 있고 아직 DB에 쓰지 않은 수정은 프로세스가 비정상 종료되면 사라짐.
+ * 잃어버릴 수 있는 최대 시간은 flushInterval, 최대 건수는 capacity로 조절함
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "springdatajpa.write-behind")
+public class WriteBehindProperties {
+
+    private boolean enabled;
+
+    /**
+     * 버퍼를 비우는 주기
+     */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    /**
+     * 트랜잭션 하나에서 수정할 회원 수. 버퍼에 이만큼 쌓이면 주기를 기다리지 않고 바로 비움
+     */
+    private int batchSize = 500;
+
+    /**
+     * 버퍼에 담을 수 있는 최대 회원 수. 가득 차면 submit을 호출한 스레드가 offerTimeout 동안 기다림 (backpressure)
+     */
+    private int capacity = 10_000;
+
+    private Duration offerTimeout = Duration.ofSeconds(1);
+
+    /**
+     * 한 배치가 실패했을 때(낙관적 락 충돌 등) 다시 시도할 최대 횟수. 넘으면 해당 수정은 버림
+     */
+    private int maxRetries = 3;
+
+    /**
+     * 애플리케이션 종료 시 남아 있는 수정을 DB에 쓰고 종료할지
+     */
+    private boolean flushOnShutdown = true;
+
+}
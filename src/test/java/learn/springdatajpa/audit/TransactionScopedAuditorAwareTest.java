@@ -0,0 +1,58 @@
+package learn.springdatajpa.audit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 스프링 컨텍스트 없이 H2 인메모리 DB의 DataSourceTransactionManager로 트랜잭션 경계만 만들어서 확인
+ */
+class TransactionScopedAuditorAwareTest {
+
+    AtomicInteger lookups = new AtomicInteger();
+
+    TransactionScopedAuditorAware auditorAware = new TransactionScopedAuditorAware(
+            () -> Optional.of("user" + lookups.incrementAndGet()));
+
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(
+            new DriverManagerDataSource("jdbc:h2:mem:audit;DB_CLOSE_DELAY=-1", "sa", ""));
+
+    @Test
+    void lookUpOncePerTransaction() {
+        List<String> auditors = new TransactionTemplate(transactionManager).execute(status -> List.of(
+                auditor(), auditor(), auditor()));
+
+        assertThat(auditors).containsOnly("user1");
+        assertThat(lookups.get()).isEqualTo(1);
+    }
+
+    @Test
+    void requiresNewLooksUpItsOwnAuditor() {
+        TransactionTemplate inner = new TransactionTemplate(transactionManager);
+        inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        List<String> auditors = new TransactionTemplate(transactionManager).execute(status -> {
+            List<String> result = new ArrayList<>();
+            result.add(auditor());
+            result.add(inner.execute(innerStatus -> auditor()));
+            result.add(auditor()); // 재개된 바깥 트랜잭션은 원래 값을 그대로 씀
+            return result;
+        });
+
+        assertThat(auditors).containsExactly("user1", "user2", "user1");
+    }
+
+    private String auditor() {
+        return auditorAware.getCurrentAuditor().orElseThrow();
+    }
+
+}
@@ -0,0 +1,47 @@
+package learn.springdatajpa.cache;
+
+import learn.springdatajpa.entity.Team;
+import learn.springdatajpa.repository.TeamRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class CacheStatisticsTest {
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    CacheStatistics cacheStatistics;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    void teamSecondLevelCache() {
+        Team team = teamRepository.save(new Team("TeamA"));
+        em.flush();
+        em.clear();
+
+        long hitCount = hitCount(Team.class.getName());
+
+        teamRepository.findById(team.getId()).orElseThrow(); // DB에서 조회한 뒤 2차 캐시에 저장
+        em.clear();
+        teamRepository.findById(team.getId()).orElseThrow(); // 영속성 컨텍스트가 비어있어도 2차 캐시에서 조회
+
+        assertThat(hitCount(Team.class.getName())).isGreaterThan(hitCount);
+    }
+
+    private long hitCount(String region) {
+        return cacheStatistics.region(region).orElseThrow().getHitCount();
+    }
+
+}
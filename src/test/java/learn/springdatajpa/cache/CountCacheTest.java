@@ -0,0 +1,68 @@
+package learn.springdatajpa.cache;
+
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.repository.MemberRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 무효화는 커밋 이후에 일어나므로 테스트 트랜잭션 없이 실행
+ */
+@SpringBootTest
+class CountCacheTest {
+
+    private static final String PREDICATE = "CountCacheTest";
+
+    @Autowired
+    CountCache countCache;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+        countCache.invalidateAll();
+    }
+
+    @Test
+    void invalidateAfterCommit() {
+        assertThat(cachedCount()).isZero();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberRepository.saveAndFlush(new Member("member1", 10));
+
+            assertThat(cachedCount()).isZero(); // 커밋 전에는 그대로
+        });
+
+        assertThat(cachedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void keepOnRollback() {
+        assertThat(cachedCount()).isZero();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberRepository.saveAndFlush(new Member("member1", 10));
+            status.setRollbackOnly();
+        });
+
+        assertThat(countCache.get(PREDICATE, () -> {
+            throw new AssertionError("count query should not run");
+        })).isZero();
+    }
+
+    private long cachedCount() {
+        return countCache.get(PREDICATE, memberRepository::count);
+    }
+
+}
@@ -0,0 +1,168 @@
+package learn.springdatajpa.cache;
+
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.entity.Team;
+import learn.springdatajpa.repository.MemberRepository;
+import learn.springdatajpa.repository.TeamRepository;
+import learn.springdatajpa.service.MemberService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 무효화는 커밋 이후에 일어나므로 테스트 트랜잭션 없이 실행
+ */
+@SpringBootTest
+class EntitySnapshotCacheTest {
+
+    private static final int MEMBER_COUNT = 20;
+    private static final int READER_COUNT = 16;
+    private static final int UPDATE_COUNT = 200;
+
+    @Autowired
+    EntitySnapshotCache snapshotCache;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+        teamRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void invalidateOnUpdateAndDelete() {
+        Team team = teamRepository.save(new Team("TeamA"));
+        Member member = memberRepository.save(new Member("m1", 10, team));
+
+        MemberSnapshot snapshot = snapshotCache.findMember(member.getId()).orElseThrow();
+        assertThat(snapshot.getTeamId()).isEqualTo(team.getId());
+        assertThat(snapshotCache.findMember(member.getId()).orElseThrow()).isSameAs(snapshot); // 캐시 적중
+
+        memberService.changeUsername(member.getId(), "m2");
+        assertThat(snapshotCache.findMember(member.getId()).orElseThrow().getUsername()).isEqualTo("m2");
+
+        memberRepository.deleteById(member.getId());
+        assertThat(snapshotCache.findMember(member.getId())).isEmpty();
+    }
+
+    @Test
+    void invalidateOnBulkUpdate() {
+        Member member = memberRepository.save(new Member("m1", 10));
+        snapshotCache.findMember(member.getId()).orElseThrow();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> memberRepository.bulkAddAge(10));
+
+        assertThat(snapshotCache.findMember(member.getId()).orElseThrow().getAge()).isEqualTo(11);
+    }
+
+    @Test
+    void uncommittedChangesAreNotCached() {
+        Member member = memberRepository.save(new Member("m1", 10));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberRepository.findById(member.getId()).orElseThrow().changeUsername("uncommitted");
+            memberRepository.flush();
+
+            // 호출한 트랜잭션에서 읽으므로 커밋되지 않은 값이 보이지만 캐시에는 넣지 않음
+            assertThat(snapshotCache.findMember(member.getId()).orElseThrow().getUsername()).isEqualTo("uncommitted");
+            status.setRollbackOnly();
+        });
+
+        assertThat(snapshotCache.findMember(member.getId()).orElseThrow().getUsername()).isEqualTo("m1");
+    }
+
+    /**
+     * 변경하지 않은 트랜잭션이라도 트랜잭션 시작 시점의 오래된 스냅샷을 읽을 수 있으므로 캐시하지 않음
+     */
+    @Test
+    void readsInTransactionAreNotCached() {
+        Member member = memberRepository.save(new Member("m1", 10));
+
+        MemberSnapshot snapshot = new TransactionTemplate(transactionManager)
+                .execute(status -> snapshotCache.findMember(member.getId()).orElseThrow());
+
+        assertThat(snapshot.getUsername()).isEqualTo("m1");
+        assertThat(snapshotCache.findMember(member.getId()).orElseThrow()).isNotSameAs(snapshot);
+    }
+
+    /**
+     * 여러 스레드가 계속 조회하는 동안 회원을 수정해도, 수정이 모두 끝난 뒤의 스냅샷은 DB와 같아야 함
+     */
+    @Test
+    void concurrentReadsAndUpdates() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < MEMBER_COUNT; i++) {
+            ids.add(memberRepository.save(new Member("member" + i, 10)).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(READER_COUNT + 1);
+        AtomicBoolean updating = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int i = 0; i < READER_COUNT; i++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    while (updating.get()) {
+                        Long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                        assertThat(snapshotCache.findMember(id)).isPresent();
+                    }
+                    return null;
+                }));
+            }
+            Future<?> writer = executor.submit(() -> {
+                start.await();
+                try {
+                    for (int i = 0; i < UPDATE_COUNT; i++) {
+                        memberService.changeUsername(ids.get(i % ids.size()), "updated" + i);
+                    }
+                } finally {
+                    updating.set(false);
+                }
+                return null;
+            });
+
+            start.countDown();
+            writer.get(60, TimeUnit.SECONDS);
+            for (Future<?> reader : readers) {
+                reader.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Long id : ids) {
+            Member member = memberRepository.findById(id).orElseThrow();
+            MemberSnapshot snapshot = snapshotCache.findMember(id).orElseThrow();
+            assertThat(snapshot.getUsername()).isEqualTo(member.getUsername());
+            assertThat(snapshot.getVersion()).isEqualTo(member.getVersion());
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package learn.springdatajpa.config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.SessionFactoryObserver;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * deferred 부트스트랩에서 EntityManagerFactory를 만드는 스레드 확인
+ * 하이버네이트는 SessionFactory를 만든 스레드에서 SessionFactoryObserver를 호출하므로, 그 스레드 이름을 기록해 둠
+ */
+@SpringBootTest(properties = "spring.data.jpa.repositories.bootstrap-mode=deferred")
+class AsyncConfigTest {
+
+    static final AtomicReference<String> bootstrapThread = new AtomicReference<>();
+
+    @Test
+    void entityManagerFactoryIsBuiltOnApplicationTaskExecutor() {
+        assertThat(bootstrapThread.get())
+                .startsWith("task-")
+                .doesNotStartWith("repository-");
+    }
+
+    @TestConfiguration
+    static class BootstrapThreadConfig {
+
+        @Bean
+        HibernatePropertiesCustomizer bootstrapThreadRecorder() {
+            return properties -> properties.put(AvailableSettings.SESSION_FACTORY_OBSERVER, new SessionFactoryObserver() {
+                @Override
+                public void sessionFactoryCreated(SessionFactory factory) {
+                    bootstrapThread.set(Thread.currentThread().getName());
+                }
+
+                @Override
+                public void sessionFactoryClosed(SessionFactory factory) {
+                }
+            });
+        }
+
+    }
+
+}
@@ -0,0 +1,186 @@
+package learn.springdatajpa.datasource;
+
+import learn.springdatajpa.datasource.RoutingDataSourceProperties.LoadBalancing;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * H2 인메모리 DB 세 개를 primary, replica1, replica2로 사용
+ */
+class ReplicationRoutingDataSourceTest {
+
+    DataSource primary = h2("primary");
+    DataSource replica1 = h2("replica1");
+    DataSource replica2 = h2("replica2");
+
+    ReplicationRoutingDataSource routing;
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        if (routing != null) {
+            routing.close();
+        }
+    }
+
+    @Test
+    void writeGoesToPrimary() throws SQLException {
+        routing = routing(LoadBalancing.ROUND_ROBIN, ReplicaLagProbe.NONE);
+
+        assertThat(databaseOf(routing)).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyIsBalancedAcrossReplicas() throws SQLException {
+        routing = routing(LoadBalancing.ROUND_ROBIN, ReplicaLagProbe.NONE);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(databaseOf(routing)).isEqualTo("replica1");
+        assertThat(databaseOf(routing)).isEqualTo("replica2");
+        assertThat(databaseOf(routing)).isEqualTo("replica1");
+    }
+
+    @Test
+    void laggingReplicasFallBackToPrimary() throws SQLException {
+        routing = routing(LoadBalancing.ROUND_ROBIN, replica -> Duration.ofMinutes(1));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(databaseOf(routing)).isEqualTo("primary");
+    }
+
+    @Test
+    void laggingReplicaIsSkipped() throws SQLException {
+        routing = routing(LoadBalancing.LEAST_LATENCY,
+                replica -> replica == replica1 ? Duration.ofMinutes(1) : Duration.ZERO);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(databaseOf(routing)).isEqualTo("replica2");
+        assertThat(databaseOf(routing)).isEqualTo("replica2");
+    }
+
+    @Test
+    void lagIsNotProbedOnConnectionAcquire() throws SQLException {
+        AtomicInteger probeCalls = new AtomicInteger();
+        routing = routing(LoadBalancing.ROUND_ROBIN, replica -> {
+            probeCalls.incrementAndGet();
+            return Duration.ZERO;
+        });
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        for (int i = 0; i < 10; i++) {
+            databaseOf(routing);
+        }
+
+        assertThat(probeCalls.get()).isEqualTo(2); // 생성할 때 replica마다 한 번씩만 조회함
+    }
+
+    @Test
+    void lagIsRefreshedInBackground() throws SQLException, InterruptedException {
+        AtomicReference<Duration> lag = new AtomicReference<>(Duration.ofMinutes(1));
+        routing = routing(LoadBalancing.ROUND_ROBIN, replica -> lag.get(), Duration.ofMillis(50));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(databaseOf(routing)).isEqualTo("primary");
+
+        lag.set(Duration.ZERO);
+        for (int i = 0; i < 50 && databaseOf(routing).equals("primary"); i++) {
+            Thread.sleep(20);
+        }
+        assertThat(databaseOf(routing)).startsWith("replica");
+    }
+
+    /**
+     * 처음에 느렸던 replica2는 선택되지 않아도 백그라운드에서 다시 측정되므로, 빨라지면 선택됨
+     */
+    @Test
+    void unusedReplicaIsRemeasured() throws SQLException {
+        AtomicLong replica1Delay = new AtomicLong();
+        AtomicLong replica2Delay = new AtomicLong(200);
+        replica1 = delayed(replica1, replica1Delay);
+        replica2 = delayed(replica2, replica2Delay);
+        routing = routing(LoadBalancing.LEAST_LATENCY, ReplicaLagProbe.NONE, Duration.ofMillis(50));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(databaseOf(routing)).isEqualTo("replica1");
+
+        replica1Delay.set(50);
+        replica2Delay.set(0);
+        for (int i = 0; i < 100 && databaseOf(routing).equals("replica1"); i++) {
+            // replica1만 선택되는 동안에도 replica2의 지연 시간이 갱신됨
+        }
+        assertThat(databaseOf(routing)).isEqualTo("replica2");
+    }
+
+    @Test
+    void credentialsArePassedToSelectedTarget() throws SQLException {
+        routing = routing(LoadBalancing.ROUND_ROBIN, ReplicaLagProbe.NONE);
+
+        assertThat(databaseOf(routing, "sa", "")).isEqualTo("primary");
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(databaseOf(routing, "sa", "")).isEqualTo("replica1");
+        assertThatThrownBy(() -> databaseOf(routing, "unknown", "wrong")).isInstanceOf(SQLException.class);
+    }
+
+    private ReplicationRoutingDataSource routing(LoadBalancing loadBalancing, ReplicaLagProbe lagProbe) {
+        return routing(loadBalancing, lagProbe, Duration.ofSeconds(10));
+    }
+
+    private ReplicationRoutingDataSource routing(LoadBalancing loadBalancing, ReplicaLagProbe lagProbe, Duration lagCheckInterval) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica1", replica1);
+        replicas.put("replica2", replica2);
+        return new ReplicationRoutingDataSource(primary, replicas, loadBalancing, lagProbe, Duration.ofSeconds(5), lagCheckInterval);
+    }
+
+    private String databaseOf(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return databaseOf(connection);
+        }
+    }
+
+    private String databaseOf(DataSource dataSource, String username, String password) throws SQLException {
+        try (Connection connection = dataSource.getConnection(username, password)) {
+            return databaseOf(connection);
+        }
+    }
+
+    private String databaseOf(Connection connection) throws SQLException {
+        String url = connection.getMetaData().getURL(); // jdbc:h2:mem:이름;옵션
+        return url.replaceFirst("^jdbc:h2:mem:([^;]+).*$", "$1");
+    }
+
+    private static DataSource delayed(DataSource target, AtomicLong delayMillis) {
+        return new DelegatingDataSource(target) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                try {
+                    Thread.sleep(delayMillis.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getConnection();
+            }
+        };
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+}
@@ -0,0 +1,66 @@
+package learn.springdatajpa.datasource;
+
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.repository.MemberRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * LazyConnectionDataSourceProxy + JpaTransactionManager 조합에서 readOnly 트랜잭션이 실제로 replica 커넥션을 쓰는지 확인
+ *
+ * 복제가 없으므로 primary와 replica는 같은 H2 인메모리 DB를 가리키고, replica는 다른 사용자(REPLICA)로 접속함.
+ * 어느 쪽으로 갔는지는 DB에 열린 세션의 사용자로 구분함 (커넥션 풀이 커넥션을 반납해도 닫지 않으므로 세션이 남아 있음)
+ */
+@SpringBootTest(properties = {
+        "springdatajpa.routing-datasource.enabled=true",
+        "springdatajpa.routing-datasource.primary.url=" + RoutingDataSourceConfigTest.PRIMARY_URL,
+        "springdatajpa.routing-datasource.primary.username=sa",
+        "springdatajpa.routing-datasource.replicas[0].name=replica1",
+        "springdatajpa.routing-datasource.replicas[0].url=" + RoutingDataSourceConfigTest.REPLICA_URL,
+        "springdatajpa.routing-datasource.replicas[0].username=replica",
+        "springdatajpa.routing-datasource.replicas[0].password=replica"
+})
+class RoutingDataSourceConfigTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1";
+    static final String PRIMARY_URL = REPLICA_URL + ";INIT=CREATE USER IF NOT EXISTS REPLICA PASSWORD 'replica' ADMIN";
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    /**
+     * 애플리케이션의 데이터소스를 거치지 않고 세션 목록을 조회함
+     */
+    JdbcTemplate sessions = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void readOnlyRepositoryCallUsesReplica() {
+        memberRepository.save(new Member("member1", 10));
+        assertThat(replicaSessions()).isZero();
+
+        Member member = memberRepository.findReadOnlyByUsername("member1");
+
+        assertThat(member.getUsername()).isEqualTo("member1");
+        assertThat(replicaSessions()).isPositive();
+    }
+
+    private int replicaSessions() {
+        List<Integer> count = sessions.queryForList(
+                "select count(*) from information_schema.sessions where user_name = 'REPLICA'", Integer.class);
+        return count.get(0);
+    }
+
+}
@@ -0,0 +1,147 @@
+package learn.springdatajpa.event;
+
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.entity.Team;
+import learn.springdatajpa.repository.MemberRepository;
+import learn.springdatajpa.repository.TeamRepository;
+import learn.springdatajpa.service.MemberService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 피드에는 커밋된 변경만 들어가므로 테스트 트랜잭션 없이 실행
+ */
+@SpringBootTest(properties = "springdatajpa.change-feed.max-transaction-changes=100")
+class ChangeFeedTest {
+
+    @Autowired
+    ChangeFeed changeFeed;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+        teamRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void committedChangesInOrder() {
+        long start = changeFeed.getEndOffset();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        Member member = transaction.execute(status -> {
+            Team team = teamRepository.save(new Team("TeamA"));
+            return memberRepository.save(new Member("m1", 10, team));
+        });
+        memberService.changeUsername(member.getId(), "m2");
+        transaction.executeWithoutResult(status -> memberRepository.bulkAddAge(10));
+        transaction.executeWithoutResult(status -> {
+            memberRepository.save(new Member("rolledBack", 10));
+            status.setRollbackOnly();
+        });
+        memberRepository.deleteById(member.getId());
+
+        ChangeBatch batch = changeFeed.poll(start, 100);
+
+        assertThat(batch.isGap()).isFalse();
+        assertThat(batch.getNextOffset()).isEqualTo(start + batch.getRecords().size());
+        assertThat(batch.getRecords())
+                .extracting(ChangeRecord::getEntityType, ChangeRecord::getChangeType)
+                .containsExactly(
+                        tuple("Team", EntityChangeType.INSERT),
+                        tuple("Member", EntityChangeType.INSERT),
+                        tuple("Member", EntityChangeType.UPDATE),
+                        tuple("Member", EntityChangeType.BULK_UPDATE),
+                        tuple("Member", EntityChangeType.DELETE));
+        assertThat(batch.getRecords().get(1).getId()).isEqualTo(member.getId());
+    }
+
+    @Test
+    void longPollingWaitsForCommit() throws Exception {
+        long start = changeFeed.getEndOffset();
+
+        CompletableFuture<ChangeBatch> poll = CompletableFuture.supplyAsync(() -> changeFeed.poll(start, 10, Duration.ofSeconds(10)));
+        memberRepository.save(new Member("m1", 10));
+
+        assertThat(poll.get(10, TimeUnit.SECONDS).getRecords())
+                .extracting(ChangeRecord::getChangeType)
+                .containsExactly(EntityChangeType.INSERT);
+    }
+
+    @Test
+    void requiresNewKeepsItsOwnChanges() {
+        long start = changeFeed.getEndOffset();
+        TransactionTemplate outer = new TransactionTemplate(transactionManager);
+        TransactionTemplate inner = new TransactionTemplate(transactionManager);
+        inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Member committed = outer.execute(status -> {
+            memberRepository.saveAndFlush(new Member("outer", 10));
+            Member member = inner.execute(innerStatus -> memberRepository.saveAndFlush(new Member("inner", 10)));
+            status.setRollbackOnly(); // 바깥 트랜잭션만 롤백
+            return member;
+        });
+
+        ChangeBatch batch = changeFeed.poll(start, 100);
+        assertThat(batch.getRecords())
+                .extracting(ChangeRecord::getEntityType, ChangeRecord::getId, ChangeRecord::getChangeType)
+                .containsExactly(tuple("Member", committed.getId(), EntityChangeType.INSERT));
+    }
+
+    @Test
+    void largeTransactionIsCollapsed() {
+        long start = changeFeed.getEndOffset();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            teamRepository.save(new Team("TeamA"));
+            for (int i = 0; i < 150; i++) {
+                memberRepository.save(new Member("m" + i, 10));
+            }
+        });
+
+        ChangeBatch batch = changeFeed.poll(start, 1000);
+        assertThat(batch.isGap()).isFalse();
+        assertThat(batch.getRecords())
+                .extracting(ChangeRecord::getEntityType, ChangeRecord::getId, ChangeRecord::getChangeType)
+                .containsExactlyInAnyOrder(
+                        tuple("Team", null, EntityChangeType.BULK_UPDATE),
+                        tuple("Member", null, EntityChangeType.BULK_UPDATE));
+    }
+
+    @Test
+    void asyncPollCompletesOnCommit() throws Exception {
+        long start = changeFeed.getEndOffset();
+
+        CompletableFuture<ChangeBatch> poll = changeFeed.pollAsync(start, 10);
+        assertThat(poll).isNotDone();
+
+        memberRepository.save(new Member("m1", 10));
+
+        assertThat(poll.get(10, TimeUnit.SECONDS).getRecords())
+                .extracting(ChangeRecord::getChangeType)
+                .containsExactly(EntityChangeType.INSERT);
+    }
+
+}
@@ -0,0 +1,70 @@
+package learn.springdatajpa.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.entity.Team;
+import learn.springdatajpa.repository.MemberRepository;
+import learn.springdatajpa.repository.TeamRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class RepositoryMetricsTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    void rowsAndEntityLoads() {
+        Team team = teamRepository.save(new Team("TeamA"));
+        memberRepository.save(new Member("member1", 10, team));
+        memberRepository.save(new Member("member2", 20, team));
+        em.flush();
+        em.clear();
+
+        // 같은 스프링 컨텍스트를 쓰는 다른 테스트에서 기록된 값이 있을 수 있으므로 차이로 확인
+        double rows = total("repository.rows", "findAll");
+        double entityLoads = total("repository.entities.loaded", "findAll");
+
+        memberRepository.findAll(); // @EntityGraph로 팀도 함께 조회
+
+        assertThat(total("repository.rows", "findAll") - rows).isEqualTo(2);
+        assertThat(total("repository.entities.loaded", "findAll") - entityLoads).isEqualTo(3); // 회원 2 + 팀 1
+        assertThat(registry.get("repository.invocations").tags("repository", "MemberRepository", "method", "findAll").timer().count())
+                .isPositive();
+    }
+
+    @Test
+    void customFragmentMethod() {
+        memberRepository.save(new Member("member1", 10));
+        double rows = total("repository.rows", "findMemberCustom");
+
+        memberRepository.findMemberCustom();
+
+        assertThat(total("repository.rows", "findMemberCustom") - rows).isEqualTo(1);
+    }
+
+    private double total(String name, String method) {
+        return registry.find(name).tags("repository", "MemberRepository", "method", method).summaries().stream()
+                .mapToDouble(summary -> summary.totalAmount())
+                .sum();
+    }
+
+}
@@ -0,0 +1,89 @@
+package learn.springdatajpa.monitoring;
+
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.metrics.RepositoryInvocationRecorder;
+import learn.springdatajpa.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "springdatajpa.slow-query.enabled=true",
+        "springdatajpa.slow-query.threshold=0ms", // 모든 쿼리를 느린 쿼리로 기록
+        "springdatajpa.slow-query.explain=true",
+        "springdatajpa.slow-query.log-parameters=true"
+})
+@Transactional
+class SlowQueryLogTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    SlowQueryLog slowQueryLog;
+
+    @Test
+    void recordWithParametersAndPlan() throws InterruptedException {
+        memberRepository.save(new Member("member1", 10));
+
+        memberRepository.findByUsernameAndAgeGreaterThan("member1", 5);
+
+        SlowQuery query = lastQueryOf("MemberRepository.findByUsernameAndAgeGreaterThan");
+        assertThat(query.getParameters()).containsExactly("member1", "5");
+        assertThat(query.getRowCount()).isEqualTo(1);
+
+        // EXPLAIN은 백그라운드에서 실행됨
+        for (int i = 0; i < 50 && query.getPlan() == null; i++) {
+            Thread.sleep(100);
+        }
+        assertThat(query.getPlan()).isNotNull().doesNotStartWith("EXPLAIN failed");
+    }
+
+    @Test
+    void recordOnStatementCloseWithMaskedParameters() throws Exception {
+        SlowQueryProperties properties = new SlowQueryProperties();
+        properties.setThreshold(Duration.ZERO);
+        SlowQueryLog log = new SlowQueryLog(properties);
+        DataSource dataSource = new SlowQueryDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:slow-query;DB_CLOSE_DELAY=-1", "sa", ""),
+                log,
+                new RepositoryInvocationRecorder());
+
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement("select ? as username");
+            statement.setString(1, "member1");
+            ResultSet resultSet = statement.executeQuery();
+            resultSet.next();
+            statement.close(); // ResultSet을 닫지 않고 Statement만 닫음
+        } finally {
+            log.destroy();
+        }
+
+        assertThat(log.recent()).singleElement().satisfies(query -> {
+            assertThat(query.getParameters()).containsExactly("?String");
+            assertThat(query.getRowCount()).isEqualTo(1);
+        });
+    }
+
+    private SlowQuery lastQueryOf(String repositoryMethod) {
+        List<SlowQuery> queries = slowQueryLog.recent();
+        for (int i = queries.size() - 1; i >= 0; i--) {
+            if (repositoryMethod.equals(queries.get(i).getRepositoryMethod()) && queries.get(i).getSql().trim().startsWith("select")) {
+                return queries.get(i);
+            }
+        }
+        throw new AssertionError("No slow query recorded for " + repositoryMethod);
+    }
+
+}
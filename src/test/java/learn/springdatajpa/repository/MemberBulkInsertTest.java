@@ -0,0 +1,35 @@
+package learn.springdatajpa.repository;
+
+import learn.springdatajpa.entity.Member;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * bulkInsert()가 스스로 트랜잭션을 시작하는지 확인하기 위해 테스트 트랜잭션 없이 실행
+ */
+@SpringBootTest
+class MemberBulkInsertTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void bulkInsertWithoutSurroundingTransaction() {
+        int inserted = memberRepository.bulkInsert(IntStream.rangeClosed(1, 10).mapToObj(i -> new Member("m" + i, i)));
+
+        assertThat(inserted).isEqualTo(10);
+        assertThat(memberRepository.count()).isEqualTo(10);
+    }
+
+}
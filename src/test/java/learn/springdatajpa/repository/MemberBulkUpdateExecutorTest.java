@@ -0,0 +1,64 @@
+package learn.springdatajpa.repository;
+
+import learn.springdatajpa.entity.Member;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 청크마다 별도의 트랜잭션으로 커밋되므로 테스트 트랜잭션(@Transactional) 없이 실행하고, 끝나면 직접 데이터를 지움
+ */
+@SpringBootTest
+class MemberBulkUpdateExecutorTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberBulkUpdateExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void addAgeInChunks() {
+        memberRepository.saveAll(Arrays.asList(
+                new Member("m1", 10),
+                new Member("m2", 19),
+                new Member("m3", 20),
+                new Member("m4", 24),
+                new Member("m5", 40)));
+
+        List<BulkUpdateProgress> progresses = new ArrayList<>();
+        BulkUpdateProgress result = executor.addAge(20, 2, 0L, Duration.ZERO, progresses::add);
+
+        assertThat(result.getUpdatedCount()).isEqualTo(3);
+        assertThat(result.getChunkCount()).isEqualTo(2);
+        assertThat(progresses).hasSize(2);
+        assertThat(memberRepository.findAll()).extracting("age").containsExactlyInAnyOrder(10, 19, 21, 25, 41);
+    }
+
+    @Test
+    void resumeAfterLastProcessedId() {
+        List<Member> members = memberRepository.saveAll(Arrays.asList(
+                new Member("m1", 30),
+                new Member("m2", 30),
+                new Member("m3", 30)));
+
+        BulkUpdateProgress result = executor.addAge(20, 10, members.get(0).getId(), Duration.ZERO, progress -> {});
+
+        assertThat(result.getUpdatedCount()).isEqualTo(2);
+        assertThat(memberRepository.findById(members.get(0).getId()).orElseThrow().getAge()).isEqualTo(30);
+    }
+
+}
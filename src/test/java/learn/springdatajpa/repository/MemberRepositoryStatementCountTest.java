@@ -0,0 +1,212 @@
+package learn.springdatajpa.repository;
+
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.entity.Team;
+import learn.springdatajpa.monitoring.StatementRecorder;
+import learn.springdatajpa.monitoring.StatementScope;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * MemberRepository 메서드별로 실제 실행되는 SQL 개수 확인
+ */
+@SpringBootTest
+@Transactional
+class MemberRepositoryStatementCountTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    StatementRecorder recorder;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @BeforeEach
+    void setUp() {
+        Team teamA = teamRepository.save(new Team("TeamA"));
+        Team teamB = teamRepository.save(new Team("TeamB"));
+        Team teamC = teamRepository.save(new Team("TeamC"));
+        memberRepository.save(new Member("m1", 10, teamA));
+        memberRepository.save(new Member("m2", 10, teamB));
+        memberRepository.save(new Member("m3", 10, teamC));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void findAllWithEntityGraph() {
+        try (StatementScope scope = recorder.open("findAll")) {
+            List<Member> members = memberRepository.findAll();
+            members.forEach(member -> member.getTeam().getName());
+
+            assertThat(scope.getStatementCount()).isEqualTo(1); // 페치 조인 한 번으로 팀까지 조회
+            assertThat(scope.getEntityLoadCount()).isEqualTo(6);
+        }
+    }
+
+    @Test
+    void findMemberCustomTouchingTeam() {
+        try (StatementScope scope = recorder.open("findMemberCustom")) {
+            List<Member> members = memberRepository.findMemberCustom();
+            members.forEach(member -> member.getTeam().getName());
+
+            // 회원 조회 1번 + 팀 지연 로딩은 @BatchSize 덕분에 IN 절로 1번 (N+1이 아닌 1+1)
+            assertThat(scope.getStatementCount()).isEqualTo(2);
+            assertThat(scope.getRepeatedStatements(2)).isEmpty();
+        }
+    }
+
+    @Test
+    void teamMembersBatchFetch() {
+        try (StatementScope scope = recorder.open("teamMembers")) {
+            List<Team> teams = teamRepository.findAll();
+            teams.forEach(team -> team.getMembers().size());
+
+            // 팀 조회 1번 + 세 팀의 members 컬렉션을 IN 절로 1번
+            assertThat(scope.getStatementCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void findMemberDto() {
+        try (StatementScope scope = recorder.open("findMemberDto")) {
+            memberRepository.findMemberDto();
+
+            assertThat(scope.getStatementCount()).isEqualTo(1);
+            assertThat(scope.getEntityLoadCount()).isZero(); // DTO는 엔티티를 만들지 않음
+        }
+    }
+
+    @Test
+    void findPageByAge() {
+        try (StatementScope scope = recorder.open("findPageByAge")) {
+            memberRepository.findPageByAge(10, PageRequest.of(0, 2));
+
+            assertThat(scope.getStatementCount()).isEqualTo(2); // content + count
+        }
+    }
+
+    @Test
+    void findPageByAgeLastPage() {
+        try (StatementScope scope = recorder.open("findPageByAge")) {
+            memberRepository.findPageByAge(10, PageRequest.of(0, 5));
+
+            assertThat(scope.getStatementCount()).isEqualTo(1); // 첫 페이지에서 전부 조회되면 count 쿼리 생략
+        }
+    }
+
+    @Test
+    void findSliceByAge() {
+        try (StatementScope scope = recorder.open("findSliceByAge")) {
+            memberRepository.findSliceByAge(10, PageRequest.of(0, 2));
+
+            assertThat(scope.getStatementCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void findByUsername() {
+        try (StatementScope scope = recorder.open("findByUsername")) {
+            memberRepository.findByUsername("m1");
+
+            assertThat(scope.getStatementCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void bulkAddAge() {
+        try (StatementScope scope = recorder.open("bulkAddAge")) {
+            memberRepository.bulkAddAge(10);
+
+            assertThat(scope.getStatementCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void derivedAndJpqlQueries() {
+        try (StatementScope scope = recorder.open("queries")) {
+            memberRepository.findByUsernameAndAgeGreaterThan("m1", 5);
+            memberRepository.findMember("m1", 10);
+            memberRepository.findUsernameList();
+            memberRepository.findNativeQueryByUsername("m1");
+            memberRepository.findByUsernames(List.of("m1", "m2", "m3"));
+
+            assertThat(scope.getStatementCount()).isEqualTo(5); // 메서드마다 한 번
+        }
+    }
+
+    @Test
+    void entityGraphQueriesTouchingTeam() {
+        try (StatementScope scope = recorder.open("entityGraph")) {
+            memberRepository.findAllCustom().forEach(member -> member.getTeam().getName());
+            memberRepository.findByAgeGreaterThan(0).forEach(member -> member.getTeam().getName());
+
+            assertThat(scope.getStatementCount()).isEqualTo(2); // 팀은 페치 조인으로 함께 조회
+        }
+    }
+
+    @Test
+    void findPageByAge2WithCountQuery() {
+        try (StatementScope scope = recorder.open("findPageByAge2")) {
+            memberRepository.findPageByAge2(10, PageRequest.of(0, 2));
+
+            assertThat(scope.getStatementCount()).isEqualTo(2); // content + 직접 지정한 count
+        }
+    }
+
+    @Test
+    void findAllByIds() {
+        long[] ids = memberRepository.findAll().stream().mapToLong(Member::getId).toArray();
+        em.clear();
+
+        try (StatementScope scope = recorder.open("findAllByIds")) {
+            memberRepository.findAllByIds(ids);
+
+            assertThat(scope.getStatementCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void findWindowByAge() {
+        try (StatementScope scope = recorder.open("findWindowByAge")) {
+            memberRepository.findWindowByAge(10, null, 2);
+
+            assertThat(scope.getStatementCount()).isEqualTo(1); // size + 1개를 조회해서 다음 창이 있는지 확인하므로 count 쿼리 없음
+        }
+    }
+
+    @Test
+    void batchedInsertsAreNotReportedAsNPlusOne() {
+        try (StatementScope scope = recorder.open("saveAll")) {
+            memberRepository.saveAll(IntStream.range(0, 300).mapToObj(i -> new Member("batch" + i, 20)).collect(Collectors.toList()));
+            em.flush();
+
+            // batch_size(50)마다 같은 insert가 다시 준비되지만 N+1로 보지 않음
+            int inserts = scope.getStatementCounts().entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith("insert"))
+                    .mapToInt(Map.Entry::getValue)
+                    .sum();
+            assertThat(inserts).isGreaterThanOrEqualTo(6);
+            assertThat(scope.getRepeatedStatements(5).keySet()).noneMatch(sql -> sql.startsWith("insert"));
+        }
+    }
+
+}
@@ -3,6 +3,13 @@ package learn.springdatajpa.repository;
 import learn.springdatajpa.dto.MemberDto;
 import learn.springdatajpa.entity.Member;
 import learn.springdatajpa.entity.Team;
+import learn.springdatajpa.monitoring.StatementRecorder;
+import learn.springdatajpa.monitoring.StatementScope;
+import learn.springdatajpa.paging.KeysetWindow;
+import learn.springdatajpa.paging.MemberChangeCursor;
+import learn.springdatajpa.paging.MemberKeysetCursor;
+import learn.springdatajpa.projection.MemberProjection;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -13,9 +20,18 @@ import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,6 +46,9 @@ class MemberRepositoryTest {
     @Autowired
     TeamRepository teamRepository;
 
+    @Autowired
+    StatementRecorder recorder;
+
     @PersistenceContext
     EntityManager em;
 
@@ -145,6 +164,36 @@ class MemberRepositoryTest {
         assertThat(result.get(1).getUsername()).isEqualTo(memberB.getUsername());
     }
 
+    @Test
+    void findByUsernamesInChunks() {
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("member" + i, 10));
+        }
+
+        List<String> usernames = Arrays.asList("member0", "member1", "member2", "member3", "member4", "member0", "unknown");
+
+        List<Member> result = memberRepository.findByUsernames(usernames, 2);
+        assertThat(result).extracting(Member::getUsername)
+                .containsExactlyInAnyOrder("member0", "member1", "member2", "member3", "member4");
+        assertThat(memberRepository.findByUsernames(Collections.emptyList())).isEmpty();
+    }
+
+    @Test
+    void findAndDeleteByIds() {
+        long[] ids = new long[5];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = memberRepository.save(new Member("member" + i, 10)).getId();
+        }
+
+        long[] requested = {ids[3], ids[0], ids[3], ids[1], Long.MAX_VALUE};
+        assertThat(memberRepository.findAllByIds(requested, 2)).extracting(Member::getId)
+                .containsExactly(ids[0], ids[1], ids[3]);
+
+        assertThat(memberRepository.deleteByIds(requested, 2)).isEqualTo(3);
+        assertThat(memberRepository.findAllByIds(ids)).extracting(Member::getId)
+                .containsExactly(ids[2], ids[4]);
+    }
+
     @Test
     void findByAge() {
         memberRepository.save(new Member("m1", 10));
@@ -162,13 +211,81 @@ class MemberRepositoryTest {
         assertThat(page.getTotalElements()).isEqualTo(5);
     }
 
+    @Test
+    void findWindowByAge() {
+        memberRepository.save(new Member("m1", 10));
+        memberRepository.save(new Member("m2", 10));
+        memberRepository.save(new Member("m3", 10));
+        memberRepository.save(new Member("m4", 10));
+        memberRepository.save(new Member("m5", 10));
+        memberRepository.save(new Member("m6", 20));
+
+        KeysetWindow<Member> first = memberRepository.findWindowByAge(10, null, 2);
+        KeysetWindow<Member> second = memberRepository.findWindowByAge(10, first.getNextToken(), 2);
+        KeysetWindow<Member> last = memberRepository.findWindowByAge(10, second.getNextToken(), 2);
+
+        assertThat(first.getContent()).extracting("username").containsExactly("m5", "m4");
+        assertThat(second.getContent()).extracting("username").containsExactly("m3", "m2");
+        assertThat(last.getContent()).extracting("username").containsExactly("m1");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    void findWindowByAgeRejectsTokenOfOtherAge() {
+        memberRepository.save(new Member("m1", 10));
+        memberRepository.save(new Member("m2", 10));
+
+        String token = memberRepository.findWindowByAge(10, null, 1).getNextToken();
+
+        assertThatThrownBy(() -> memberRepository.findWindowByAge(20, token, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * 키셋 페이징이 실제로 실행하는 SQL의 H2 실행 계획으로, 인덱스 탐색이 age만이 아니라 커서의 username에서 시작하는지 확인
+     */
+    @Test
+    void findWindowByAgeSeeksFromCursor() {
+        memberRepository.save(new Member("m1", 10));
+        memberRepository.save(new Member("m2", 10));
+        memberRepository.save(new Member("m3", 10));
+        String token = memberRepository.findWindowByAge(10, null, 1).getNextToken();
+
+        String sql;
+        try (StatementScope scope = recorder.open("findWindowByAge")) {
+            memberRepository.findWindowByAge(10, token, 1);
+            sql = scope.getStatementCounts().keySet().iterator().next();
+        }
+
+        MemberKeysetCursor cursor = MemberKeysetCursor.decode(token);
+        Object[] values = {10, cursor.getUsername(), cursor.getUsername(), cursor.getId()};
+        String plan = em.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                int count = statement.getParameterMetaData().getParameterCount();
+                for (int i = 0; i < count; i++) {
+                    statement.setObject(i + 1, i < values.length ? values[i] : 2); // 나머지는 limit
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getString(1);
+                }
+            }
+        });
+
+        // H2는 인덱스로 범위를 좁히는 조건을 "/* 인덱스명: 조건 */" 주석으로 보여줌
+        Matcher indexCondition = Pattern.compile("IDX_MEMBER_AGE_USERNAME_ID: ([^*]*)\\*/", Pattern.CASE_INSENSITIVE).matcher(plan);
+        assertThat(indexCondition.find()).as(plan).isTrue();
+        assertThat(indexCondition.group(1)).containsIgnoringCase("USERNAME <=");
+    }
+
     @Test
     void bulkAddAge() {
         memberRepository.save(new Member("m1", 10));
         memberRepository.save(new Member("m2", 19));
         memberRepository.save(new Member("m3", 20));
         memberRepository.save(new Member("m4", 24));
-        memberRepository.save(new Member("m5", 40));
+        Long version = memberRepository.save(new Member("m5", 40)).getVersion();
 
         int resultCount = memberRepository.bulkAddAge(20);
 
@@ -177,6 +294,7 @@ class MemberRepositoryTest {
 
         assertThat(resultCount).isEqualTo(3);
         assertThat(m5.getAge()).isEqualTo(41);
+        assertThat(m5.getVersion()).isEqualTo(version + 1); // 이전 version으로 수정하려는 트랜잭션은 충돌함
     }
 
     @Test
@@ -241,4 +359,125 @@ class MemberRepositoryTest {
         assertThat(result.size()).isEqualTo(2);
     }
 
-}
\ No newline at end of file
+    @Test
+    void bulkInsert() {
+        int inserted = memberRepository.bulkInsert(
+                IntStream.rangeClosed(1, 10).mapToObj(i -> new Member("m" + i, i)), 3);
+
+        assertThat(inserted).isEqualTo(10);
+        assertThat(memberRepository.count()).isEqualTo(10);
+    }
+
+    @Test
+    void streamChangedSince() {
+        // 한 트랜잭션에서 저장한 회원은 수정 시각이 모두 같으므로 id로 순서가 정해짐
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(memberRepository.save(new Member("member" + i, 10)).getId());
+        }
+        em.flush();
+        em.clear();
+
+        MemberChangeCursor cursor = MemberChangeCursor.START;
+        try (Stream<Member> stream = memberRepository.streamChangedSince(cursor.getLastModifiedDate(), cursor.getId())) {
+            List<Member> firstRun = stream.limit(2).collect(Collectors.toList());
+            assertThat(firstRun).extracting(Member::getId).containsExactly(ids.get(0), ids.get(1));
+            cursor = MemberChangeCursor.decode(MemberChangeCursor.of(firstRun.get(1)).encode()); // 저장해 뒀다가 다시 읽은 커서
+        }
+
+        try (Stream<Member> stream = memberRepository.streamChangedSince(cursor.getLastModifiedDate(), cursor.getId())) {
+            List<Member> secondRun = stream.collect(Collectors.toList());
+            assertThat(secondRun).extracting(Member::getId).containsExactly(ids.get(2), ids.get(3), ids.get(4));
+            cursor = MemberChangeCursor.of(secondRun.get(2));
+        }
+
+        try (Stream<Member> stream = memberRepository.streamChangedSince(cursor.getLastModifiedDate(), cursor.getId())) {
+            assertThat(stream).isEmpty();
+        }
+    }
+
+    @Test
+    void bulkUpdateUsesTransactionAuditTime() {
+        Member member = memberRepository.save(new Member("member1", 10));
+        em.flush();
+        LocalDateTime audited = member.getLastModifiedDate();
+
+        memberRepository.bulkAddAge(10);
+
+        // 벌크 업데이트도 같은 트랜잭션의 auditing과 같은 수정 시각을 씀
+        assertThat(memberRepository.findById(member.getId()).orElseThrow().getLastModifiedDate()).isEqualTo(audited);
+    }
+
+    @Test
+    void streamAllMembers() {
+        Team teamA = new Team("TeamA");
+        teamRepository.save(teamA);
+        memberRepository.save(new Member("A", 10, teamA));
+        memberRepository.save(new Member("B", 20, teamA));
+        em.flush();
+
+        try (Stream<Member> stream = memberRepository.streamAllMembers(1)) {
+            List<Member> result = stream.collect(Collectors.toList());
+            assertThat(result).extracting("username").containsExactlyInAnyOrder("A", "B");
+            assertThat(result).noneMatch(em::contains); // 읽어온 엔티티는 영속성 컨텍스트에 남지 않음
+        }
+
+        try (Stream<MemberDto> stream = memberRepository.streamMemberDto(1)) {
+            assertThat(stream).extracting("teamName").containsOnly("TeamA");
+        }
+
+        try (Stream<String> stream = memberRepository.streamUsernameList()) {
+            assertThat(stream).containsExactlyInAnyOrder("A", "B");
+        }
+    }
+
+    @Test
+    void findPageByAgeWithCachedCount() {
+        memberRepository.save(new Member("m1", 10));
+        memberRepository.save(new Member("m2", 10));
+        memberRepository.save(new Member("m3", 10));
+        memberRepository.save(new Member("m4", 10));
+        memberRepository.save(new Member("m5", 10));
+
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "username"));
+
+        Page<Member> page = memberRepository.findPageByAgeWithCachedCount(10, pageRequest);
+        assertThat(page.getContent()).extracting("username").containsExactly("m5", "m4", "m3");
+        assertThat(page.getTotalElements()).isEqualTo(5);
+
+        memberRepository.save(new Member("m6", 10));
+        em.flush(); // 캐시된 count는 커밋된 뒤에 무효화됨 (CountCacheTest)
+
+        Page<Member> changed = memberRepository.findPageByAgeWithCachedCount(10, pageRequest);
+        assertThat(changed.getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    void findByJdbc() {
+        Team teamA = new Team("TeamA");
+        teamRepository.save(teamA);
+        memberRepository.save(new Member("A", 10, teamA));
+        memberRepository.save(new Member("B", 20));
+        em.flush(); // JDBC로 직접 조회하므로 먼저 flush 해야 조회됨
+
+        List<MemberDto> dtos = memberRepository.findMemberDtoByJdbc();
+        assertThat(dtos).extracting("username", "teamName").containsExactly(tuple("A", "TeamA"));
+
+        List<MemberProjection> projections = memberRepository.findMemberProjectionByJdbc("B");
+        assertThat(projections).hasSize(1);
+        assertThat(projections.get(0).getTeamName()).isNull();
+    }
+
+    @Test
+    void auditingOncePerTransaction() {
+        Member memberA = memberRepository.save(new Member("A", 10));
+        Member memberB = memberRepository.save(new Member("B", 20));
+        em.flush();
+
+        // 같은 트랜잭션에서는 사용자와 시각을 한 번만 조회해서 모든 엔티티에 사용함
+        assertThat(memberA.getCreatedBy()).isNotNull().isEqualTo(memberB.getCreatedBy());
+        assertThat(memberA.getCreatedDate()).isNotNull().isEqualTo(memberB.getCreatedDate());
+        assertThat(memberA.getLastModifiedDate()).isEqualTo(memberA.getCreatedDate());
+    }
+
+}
@@ -0,0 +1,96 @@
+package learn.springdatajpa.repository;
+
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.entity.Team;
+import learn.springdatajpa.monitoring.StatementRecorder;
+import learn.springdatajpa.monitoring.StatementScope;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * TeamRepository 메서드별로 실제 실행되는 SQL 개수 확인
+ */
+@SpringBootTest
+@Transactional
+class TeamRepositoryStatementCountTest {
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    StatementRecorder recorder;
+
+    @PersistenceContext
+    EntityManager em;
+
+    Team teamA;
+
+    @BeforeEach
+    void setUp() {
+        teamA = teamRepository.save(new Team("TeamA"));
+        Team teamB = teamRepository.save(new Team("TeamB"));
+        memberRepository.save(new Member("m1", 10, teamA));
+        memberRepository.save(new Member("m2", 10, teamA));
+        memberRepository.save(new Member("m3", 10, teamB));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void findAll() {
+        try (StatementScope scope = recorder.open("findAll")) {
+            teamRepository.findAll();
+
+            assertThat(scope.getStatementCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void count() {
+        try (StatementScope scope = recorder.open("count")) {
+            teamRepository.count();
+
+            assertThat(scope.getStatementCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void findByIdTouchingMembers() {
+        try (StatementScope scope = recorder.open("findById")) {
+            Team team = teamRepository.findById(teamA.getId()).orElseThrow();
+            team.getMembers().forEach(Member::getUsername);
+
+            // 팀 1번 + members 컬렉션 1번. 회원은 컬렉션을 읽을 때 함께 조회되므로 회원마다 쿼리가 나가지 않음
+            assertThat(scope.getStatementCount()).isEqualTo(2);
+            assertThat(scope.getRepeatedStatements(2)).isEmpty();
+        }
+    }
+
+    @Test
+    void saveAndDelete() {
+        try (StatementScope scope = recorder.open("saveAndDelete")) {
+            Team team = teamRepository.save(new Team("TeamC"));
+            em.flush();
+            teamRepository.delete(team);
+            em.flush();
+
+            // 새 엔티티는 merge 없이 persist 하므로 insert 전에 팀을 조회하지 않음
+            assertThat(scope.getStatementCounts().keySet())
+                    .anyMatch(sql -> sql.startsWith("insert"))
+                    .anyMatch(sql -> sql.startsWith("delete"))
+                    .noneMatch(sql -> sql.startsWith("select") && sql.contains(" from team "));
+        }
+    }
+
+}
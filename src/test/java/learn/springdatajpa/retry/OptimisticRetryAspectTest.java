@@ -0,0 +1,84 @@
+package learn.springdatajpa.retry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class OptimisticRetryAspectTest {
+
+    @Autowired
+    ConflictingService conflictingService;
+
+    @Autowired
+    OptimisticRetryMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        conflictingService.reset();
+    }
+
+    @Test
+    void retryUntilSuccess() {
+        int attempts = conflictingService.update(2);
+
+        assertThat(attempts).isEqualTo(3);
+        assertThat(updateMetrics().getConflicts()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void giveUpAfterMaxAttempts() {
+        assertThatThrownBy(() -> conflictingService.update(5))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(updateMetrics().getExhausted()).isGreaterThanOrEqualTo(1);
+    }
+
+    private OptimisticRetryMetrics.Snapshot updateMetrics() {
+        return metrics.snapshot().entrySet().stream()
+                .filter(entry -> entry.getKey().contains("ConflictingService.update"))
+                .findFirst()
+                .orElseThrow()
+                .getValue();
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        ConflictingService conflictingService() {
+            return new ConflictingService();
+        }
+
+    }
+
+    /**
+     * 처음 conflicts 번은 낙관적 락 충돌을 흉내내고 그 다음에 성공함
+     */
+    static class ConflictingService {
+
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        @OptimisticRetry(maxAttempts = 3, backoffMillis = 1)
+        public int update(int conflicts) {
+            int attempt = attempts.incrementAndGet();
+            if (attempt <= conflicts) {
+                throw new ObjectOptimisticLockingFailureException(Object.class, 1L);
+            }
+            return attempt;
+        }
+
+        public void reset() {
+            attempts.set(0);
+        }
+
+    }
+
+}
@@ -0,0 +1,145 @@
+package learn.springdatajpa.service;
+
+import learn.springdatajpa.dto.MemberOverview;
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.entity.Team;
+import learn.springdatajpa.repository.MemberRepository;
+import learn.springdatajpa.repository.TeamRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 비동기 쿼리는 다른 스레드의 트랜잭션에서 실행되므로, 테스트 데이터는 커밋되어 있어야 함 (@Transactional 사용하지 않음)
+ */
+@SpringBootTest
+class MemberOverviewServiceTest {
+
+    @Autowired
+    MemberOverviewService memberOverviewService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    SlowStatementInspector inspector;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+        teamRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void overview() {
+        Team teamA = teamRepository.save(new Team("TeamA"));
+        Team teamB = teamRepository.save(new Team("TeamB"));
+        memberRepository.save(new Member("m1", 10, teamA));
+        memberRepository.save(new Member("m2", 10, teamB));
+        memberRepository.save(new Member("m3", 20));
+
+        MemberOverview overview = memberOverviewService.overview(10, PageRequest.of(0, 1));
+
+        assertThat(overview.getMembers().getTotalElements()).isEqualTo(2);
+        assertThat(overview.getMemberDtos()).hasSize(2);
+        assertThat(overview.getTeamCount()).isEqualTo(2);
+    }
+
+    @Test
+    void lookupsRunConcurrentlyOnRepositoryThreads() {
+        memberRepository.save(new Member("m1", 10));
+        memberRepository.save(new Member("m2", 10));
+
+        inspector.start();
+        try {
+            memberOverviewService.overview(10, PageRequest.of(0, 1));
+        } finally {
+            inspector.stop();
+        }
+
+        Map<String, List<Execution>> byThread = inspector.executions.stream()
+                .collect(Collectors.groupingBy(execution -> execution.thread));
+        assertThat(byThread.keySet()).hasSize(3).allMatch(thread -> thread.startsWith("repository-"));
+
+        // 각 조회가 실행된 구간이 모두 겹쳐야 동시에 실행된 것
+        long lastStart = byThread.values().stream().mapToLong(executions -> executions.get(0).startedAt).max().orElseThrow();
+        long firstEnd = byThread.values().stream().mapToLong(executions -> executions.get(executions.size() - 1).endedAt).min().orElseThrow();
+        assertThat(lastStart).isLessThan(firstEnd);
+    }
+
+    @TestConfiguration
+    static class SlowStatementConfig {
+
+        @Bean
+        SlowStatementInspector slowStatementInspector() {
+            return new SlowStatementInspector();
+        }
+
+    }
+
+    /**
+     * 기록하는 동안 SQL마다 잠깐 멈춰서, 조회가 동시에 실행된다면 실행 구간이 겹치게 만듦
+     */
+    static class SlowStatementInspector implements StatementInspector {
+
+        private static final long DELAY_MILLIS = 200;
+
+        final List<Execution> executions = new CopyOnWriteArrayList<>();
+
+        private volatile boolean recording;
+
+        void start() {
+            executions.clear();
+            recording = true;
+        }
+
+        void stop() {
+            recording = false;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (recording) {
+                long startedAt = System.nanoTime();
+                try {
+                    Thread.sleep(DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                executions.add(new Execution(Thread.currentThread().getName(), startedAt, System.nanoTime()));
+            }
+            return sql;
+        }
+
+    }
+
+    static class Execution {
+
+        final String thread;
+        final long startedAt;
+        final long endedAt;
+
+        Execution(String thread, long startedAt, long endedAt) {
+            this.thread = thread;
+            this.startedAt = startedAt;
+            this.endedAt = endedAt;
+        }
+
+    }
+
+}
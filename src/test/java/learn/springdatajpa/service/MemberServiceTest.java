@@ -0,0 +1,46 @@
+package learn.springdatajpa.service;
+
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.repository.MemberRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 트랜잭션이 커밋되어야 version이 증가하므로 테스트 트랜잭션 없이 실행
+ */
+@SpringBootTest
+class MemberServiceTest {
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void optimisticLock() {
+        Member member = memberRepository.save(new Member("m1", 10));
+        Member stale = memberRepository.findById(member.getId()).orElseThrow(); // 트랜잭션 밖이므로 준영속 상태
+
+        memberService.changeUsername(member.getId(), "m2");
+
+        Member changed = memberRepository.findById(member.getId()).orElseThrow();
+        assertThat(changed.getUsername()).isEqualTo("m2");
+        assertThat(changed.getVersion()).isEqualTo(stale.getVersion() + 1);
+
+        stale.changeUsername("m3");
+        assertThatThrownBy(() -> memberRepository.save(stale)) // 이전 version으로 수정 시도
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+}
@@ -0,0 +1,34 @@
+package learn.springdatajpa.warmup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "springdatajpa.query-warmup.enabled=true")
+class QueryWarmUpTest {
+
+    @Autowired
+    QueryWarmUp queryWarmUp;
+
+    @Test
+    void warmUpQueryMethods() throws InterruptedException {
+        Map<String, Long> elapsedMillis = queryWarmUp.warmUp();
+
+        assertThat(elapsedMillis).containsKeys(
+                "MemberRepository.findByUsernameAndAgeGreaterThan", // 메서드 이름으로 만드는 쿼리
+                "MemberRepository.findByAgeGreaterThan", // @EntityGraph
+                "MemberRepository.findPageByAge", // count 쿼리 포함
+                "MemberRepository.findByUsername"); // @NamedQuery
+
+        // 수정 쿼리, 락 쿼리, 비동기 메서드는 실행하지 않음
+        assertThat(elapsedMillis).doesNotContainKeys(
+                "MemberRepository.bulkAddAge",
+                "MemberRepository.findLockByUsername",
+                "MemberRepository.findAsyncMemberDto");
+    }
+
+}
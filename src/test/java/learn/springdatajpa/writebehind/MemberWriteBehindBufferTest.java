@@ -0,0 +1,153 @@
+package learn.springdatajpa.writebehind;
+
+import learn.springdatajpa.entity.Member;
+import learn.springdatajpa.repository.MemberRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 버퍼는 별도 트랜잭션으로 커밋하므로 테스트 트랜잭션 없이 실행.
+ * 주기적인 flush가 끼어들지 않도록 주기를 길게 잡고 flush()를 직접 호출함
+ */
+@SpringBootTest(properties = {
+        "springdatajpa.write-behind.enabled=true",
+        "springdatajpa.write-behind.flush-interval=1h"
+})
+class MemberWriteBehindBufferTest {
+
+    @Autowired
+    MemberWriteBehindBuffer buffer;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @AfterEach
+    void tearDown() {
+        buffer.flush();
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void coalesceUpdatesToSameMember() {
+        Member member = memberRepository.save(new Member("m1", 10));
+
+        buffer.changeUsername(member.getId(), "m2");
+        buffer.changeAge(member.getId(), 20);
+        buffer.changeUsername(member.getId(), "m3");
+
+        assertThat(buffer.getPendingCount()).isEqualTo(1);
+        assertThat(memberRepository.findById(member.getId()).orElseThrow().getUsername()).isEqualTo("m1"); // 아직 DB에 쓰지 않음
+
+        assertThat(buffer.flush()).isEqualTo(1);
+
+        Member changed = memberRepository.findById(member.getId()).orElseThrow();
+        assertThat(changed.getUsername()).isEqualTo("m3");
+        assertThat(changed.getAge()).isEqualTo(20);
+        assertThat(changed.getVersion()).isEqualTo(member.getVersion() + 1); // 세 번 수정했지만 update는 한 번
+        assertThat(buffer.getPendingCount()).isZero();
+    }
+
+    @Test
+    void dropUpdatesOfDeletedMember() {
+        long dropped = buffer.getDroppedCount();
+
+        buffer.changeUsername(Long.MAX_VALUE, "nobody");
+
+        assertThat(buffer.flush()).isZero();
+        assertThat(buffer.getDroppedCount()).isEqualTo(dropped + 1);
+    }
+
+    @Test
+    void onlyFailingMemberIsRetried() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(memberRepository.save(new Member("m" + i, 10)).getId());
+        }
+
+        buffer.changeAge(ids.get(0), 20);
+        buffer.changeAge(ids.get(1), 20);
+        buffer.changeUsername(ids.get(2), "x".repeat(300)); // 컬럼 길이(255)를 넘어서 이 회원만 실패함
+        buffer.changeAge(ids.get(3), 20);
+
+        assertThat(buffer.flush()).isEqualTo(3);
+        assertThat(buffer.getPendingCount()).isEqualTo(1);
+        assertThat(memberRepository.findAllById(ids))
+                .filteredOn(member -> !member.getId().equals(ids.get(2)))
+                .extracting(Member::getAge)
+                .containsOnly(20);
+
+        // 실패한 수정은 다음 flush에서 maxRetries를 넘을 때까지 다시 시도한 뒤 버림
+        long dropped = buffer.getDroppedCount();
+        while (buffer.getPendingCount() > 0) {
+            buffer.flush();
+        }
+        assertThat(buffer.getDroppedCount()).isEqualTo(dropped + 1);
+    }
+
+    /**
+     * DB 장애로 트랜잭션을 시작하지 못하면 배치를 나누지 않고, maxRetries를 넘겨도 수정을 버리지 않음
+     */
+    @Test
+    void keepUpdatesWhileDatabaseIsUnavailable() {
+        UnavailableTransactionManager transactionManager = new UnavailableTransactionManager();
+        WriteBehindProperties properties = new WriteBehindProperties();
+        MemberWriteBehindBuffer unavailable = new MemberWriteBehindBuffer(memberRepository, transactionManager, properties);
+
+        unavailable.changeAge(1L, 20);
+        unavailable.changeAge(2L, 20);
+        unavailable.changeAge(3L, 20);
+
+        int flushes = properties.getMaxRetries() + 2;
+        for (int i = 0; i < flushes; i++) {
+            assertThat(unavailable.flush()).isZero();
+        }
+
+        assertThat(transactionManager.attempts).isEqualTo(flushes); // flush마다 트랜잭션 한 번
+        assertThat(unavailable.getPendingCount()).isEqualTo(3);
+        assertThat(unavailable.getDroppedCount()).isZero();
+    }
+
+    @Test
+    void rejectUpdatesAfterStop() {
+        MemberWriteBehindBuffer stopped = new MemberWriteBehindBuffer(memberRepository, new UnavailableTransactionManager(), new WriteBehindProperties());
+        stopped.start();
+        stopped.stop();
+
+        assertThatThrownBy(() -> stopped.changeAge(1L, 20)).isInstanceOf(IllegalStateException.class);
+        assertThat(stopped.getPendingCount()).isZero();
+    }
+
+    static class UnavailableTransactionManager implements PlatformTransactionManager {
+
+        int attempts;
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            attempts++;
+            throw new CannotCreateTransactionException("Could not open JPA EntityManager for transaction");
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            throw new IllegalStateException();
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            throw new IllegalStateException();
+        }
+
+    }
+
+}